@@ -0,0 +1,66 @@
+package study.datajpa.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 동시 클라이언트 clients개가 한꺼번에 요청을 보내고 전부 응답받을 때까지를 한 번의 연산으로 잰다.
+ * 초당 요청 수 = ops/s * clients. 503(실행기 포화)은 rejected 카운터로 따로 센다.
+ *
+ * - /members/{id}, /members          : 톰캣 스레드에서 조회 (스레드 + 커넥션 점유)
+ * - /async/members/{id}, /async/members : AsyncConfig 실행기에서 조회 (virtualThreads=true면 JDK 21 이상에서 가상 스레드)
+ *
+ * ./gradlew jmh -PjmhIncludes=AsyncLoadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AsyncLoadBenchmark {
+
+    @Param({"10000"})
+    int members;
+
+    @Param({"1000"})
+    int clients;
+
+    @Param({"/members/{id}", "/async/members/{id}", "/members?page={page}&size=20", "/async/members?page={page}&size=20"})
+    String endpoint;
+
+    @Param({"false", "true"})
+    boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpLoad load;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("datajpa.async.virtual-threads=" + virtualThreads);
+        BenchmarkContext.seed(context, members, 100);
+        load = new HttpLoad(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        load.close();
+        context.close();
+    }
+
+
+    @Benchmark
+    public void concurrentClients(HttpLoad.Responses responses) {
+        load.fire(clients, () -> BenchmarkContext.path(endpoint, members), responses);
+    }
+
+}
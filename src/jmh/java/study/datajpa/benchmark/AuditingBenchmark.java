@@ -0,0 +1,160 @@
+package study.datajpa.benchmark;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ReflectionUtils;
+
+import study.datajpa.entity.AuditEntityListener;
+import study.datajpa.entity.BaseEntity;
+import study.datajpa.entity.BaseTimeEntity;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+/**
+ * 감사(auditing) 비용 비교
+ * - 작성자: 기존 UUID.randomUUID() + Optional (매 호출) vs 트랜잭션 단위 캐시
+ * - 값 넣기: 리플렉션(필드 4개 + 필드마다 now()) vs AuditEntityListener가 하는 직접 대입(시각 1회)
+ * - 전체: 회원 100명 persist + flush (현재 파이프라인 절대값)
+ *
+ * ./gradlew jmh -PjmhIncludes=AuditingBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AuditingBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private AuditorAware<String> auditorAware;
+    private MemberRepository memberRepository;
+    private TransactionTemplate transactionTemplate;
+
+    private Field createdDate;
+    private Field lastModifiedDate;
+    private Field createdBy;
+    private Field lastModifiedBy;
+
+    private AuditEntityListener listener;
+    private Member target;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        context = BenchmarkContext.start();
+        auditorAware = context.getBean(AuditorAware.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        createdDate = field(BaseTimeEntity.class, "createdDate");
+        lastModifiedDate = field(BaseTimeEntity.class, "lastModifiedDate");
+        createdBy = field(BaseEntity.class, "createdBy");
+        lastModifiedBy = field(BaseEntity.class, "lastModifiedBy");
+
+        listener = new AuditEntityListener(auditorAware);
+        target = new Member("audit", 10);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * 트랜잭션 안에서 불리는 상황 (CachingAuditorAware가 캐시하는 조건). 작성자/값 넣기 벤치마크만 사용
+     * 반복(iteration) 하나를 긴 트랜잭션 하나로 보고, 끝날 때 afterCompletion까지 불러 캐시를 비운다.
+     * 스레드 전체에 켜 두면 persistAndFlush100의 TransactionTemplate이 동기화를 소유하지 못해 캐시가 비워지지 않는다.
+     */
+    @State(Scope.Thread)
+    public static class InTransaction {
+
+        @Setup(Level.Iteration)
+        public void begin() {
+            TransactionSynchronizationManager.initSynchronization();
+        }
+
+        @TearDown(Level.Iteration)
+        public void end() {
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+    }
+
+
+    /* 작성자 */
+
+    @Benchmark
+    public Optional<String> legacyAuditor() {
+        return Optional.of(UUID.randomUUID().toString());
+    }
+
+    @Benchmark
+    public Optional<String> cachedAuditor(InTransaction inTransaction) {
+        return auditorAware.getCurrentAuditor();
+    }
+
+
+    /* 값 넣기 */
+
+    // 기존 방식: 애노테이션이 붙은 필드에 리플렉션으로 대입, 필드마다 시각을 읽음
+    @Benchmark
+    public Member reflectiveMarkCreated() {
+        String auditor = UUID.randomUUID().toString();
+        ReflectionUtils.setField(createdDate, target, LocalDateTime.now());
+        ReflectionUtils.setField(lastModifiedDate, target, LocalDateTime.now());
+        ReflectionUtils.setField(createdBy, target, auditor);
+        ReflectionUtils.setField(lastModifiedBy, target, auditor);
+        return target;
+    }
+
+    // 현재 방식: 캐시된 작성자 + 직접 대입
+    @Benchmark
+    public Member listenerPrePersist(InTransaction inTransaction) {
+        listener.prePersist(target);
+        return target;
+    }
+
+
+    /* 전체 */
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void persistAndFlush100() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 100; i++) {
+                memberRepository.save(new Member("audit" + i, i));
+            }
+            memberRepository.flush();
+            status.setRollbackOnly(); // 데이터가 쌓이지 않게
+        });
+    }
+
+
+    private static Field field(Class<?> type, String name) {
+        Field field = ReflectionUtils.findField(type, name);
+        ReflectionUtils.makeAccessible(field);
+        return field;
+    }
+
+}
@@ -0,0 +1,115 @@
+package study.datajpa.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.monitor.SqlStatementCounter;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+/**
+ * 지연 로딩 배치 페치 효과 (회원 10,000명 / 팀 500개)
+ * batchSize=1 이면 배치 페치 끔 -> 회원->팀은 팀 수만큼, 팀->회원은 팀 수만큼 select
+ *
+ * 2차 캐시가 켜져 있으면 워밍업 이후 팀이 캐시에서 나오므로 이 벤치마크에서는 끈다.
+ * selects 보조 카운터 / 실행 횟수 = 한 번 실행당 select 수
+ *
+ * ./gradlew jmh -PjmhIncludes=BatchFetchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BatchFetchBenchmark {
+
+    @Param({"10000"})
+    int members;
+
+    @Param({"500"})
+    int teams;
+
+    @Param({"1", "16", "100"})
+    int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TeamRepository teamRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.jpa.properties.hibernate.default_batch_fetch_size=" + batchSize,
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        BenchmarkContext.seed(context, members, teams);
+
+        memberRepository = context.getBean(MemberRepository.class);
+        teamRepository = context.getBean(TeamRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+
+    @Benchmark
+    public void memberToTeam(Blackhole bh, SelectCounter counter) {
+        SqlStatementCounter.reset();
+        readOnly.executeWithoutResult(status -> {
+            List<Member> result = memberRepository.findMemberCustom();
+            for (Member member : result) {
+                if (member.getTeam() != null) {
+                    bh.consume(member.getTeam().getName());
+                }
+            }
+        });
+        counter.selects += SqlStatementCounter.stop().getSelectCount();
+    }
+
+    @Benchmark
+    public void teamToMembers(Blackhole bh, SelectCounter counter) {
+        SqlStatementCounter.reset();
+        readOnly.executeWithoutResult(status -> {
+            for (Team team : teamRepository.findAll()) {
+                bh.consume(team.getMembers().size());
+            }
+        });
+        counter.selects += SqlStatementCounter.stop().getSelectCount();
+    }
+
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SelectCounter {
+
+        public long selects;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            selects = 0;
+        }
+
+    }
+
+}
@@ -0,0 +1,76 @@
+package study.datajpa.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import study.datajpa.DataJpaApplication;
+
+/**
+ * 벤치마크용 스프링 컨텍스트
+ * - bench 프로파일 (H2 in-memory, SQL 로그 off)
+ * - 데이터는 H2 system_range로 insert ... select 해서 수백만 건도 빠르게 넣는다.
+ */
+public final class BenchmarkContext {
+
+    // 애플리케이션이 시퀀스로 만드는 id와 겹치지 않도록 띄워둔다.
+    public static final long ID_OFFSET = 100_000_000L;
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * @param properties "key=value". 커맨드라인 인자로 넘겨 application.yml / application-bench.yml보다 우선한다.
+     */
+    public static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .profiles("bench")
+                .run(Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    /**
+     * teams개의 팀과 members명의 회원을 넣는다.
+     * username = "bench" + n, age = n % 100, 회원은 팀에 고르게 나눠 배정
+     */
+    public static void seed(ConfigurableApplicationContext context, int members, int teams) {
+        seed(context, members, teams, members);
+    }
+
+    /**
+     * username을 usernames개로 나눠 겹치게 한다. (username = "bench" + (n % usernames))
+     * username 조건 조회가 여러 건을 반환해야 하는 벤치마크용
+     */
+    public static void seed(ConfigurableApplicationContext context, int members, int teams, int usernames) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        if (teams > 0) {
+            jdbcTemplate.update("insert into team (team_id, name)"
+                    + " select x + ?, 'team' || x from system_range(1, ?)", ID_OFFSET, teams);
+
+            jdbcTemplate.update("insert into member (member_id, username, age, team_id)"
+                    + " select x + ?, 'bench' || mod(x, ?), mod(x, 100), mod(x, ?) + 1 + ? from system_range(1, ?)",
+                    ID_OFFSET, usernames, teams, ID_OFFSET, members);
+        } else {
+            jdbcTemplate.update("insert into member (member_id, username, age)"
+                    + " select x + ?, 'bench' || mod(x, ?), mod(x, 100) from system_range(1, ?)",
+                    ID_OFFSET, usernames, members);
+        }
+
+        jdbcTemplate.execute("analyze");
+    }
+
+    /**
+     * 엔드포인트 템플릿의 {id}, {page}를 seed 데이터 범위 안의 임의 값으로 채운다.
+     * ex) "/members/{id}", "/members?page={page}&size=20"
+     */
+    public static String path(String template, int members) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return template
+                .replace("{id}", String.valueOf(ID_OFFSET + 1 + random.nextInt(members)))
+                .replace("{page}", String.valueOf(random.nextInt(Math.max(1, members / 20))));
+    }
+
+}
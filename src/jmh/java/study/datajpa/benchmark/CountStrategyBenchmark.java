@@ -0,0 +1,79 @@
+package study.datajpa.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.CountStrategy;
+import study.datajpa.repository.MemberRepository;
+
+/**
+ * Page 조회의 count 전략별 지연시간 비교
+ * ./gradlew jmh -PjmhIncludes=CountStrategyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CountStrategyBenchmark {
+
+    @Param({"1000000", "3000000"})
+    int members;
+
+    @Param({"EXACT", "CACHED", "ESTIMATED", "ASYNC"})
+    CountStrategy strategy;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+
+    // offset이 있는 중간 페이지. 첫/마지막 페이지는 count가 생략될 수 있어서 피한다.
+    private final PageRequest pageRequest = PageRequest.of(100, 20);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, members, 100);
+
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+
+    @Benchmark
+    public Page<Member> findAll() {
+        return readOnly.execute(status -> memberRepository.findAll(pageRequest, strategy));
+    }
+
+    @Benchmark
+    public Page<Member> findByAge() {
+        return readOnly.execute(status -> memberRepository.findByAge(42, pageRequest, strategy));
+    }
+
+    @Benchmark
+    public Page<MemberDto> findMemberDtoPage() {
+        return readOnly.execute(status -> memberRepository.findMemberDtoPage(pageRequest, strategy));
+    }
+
+}
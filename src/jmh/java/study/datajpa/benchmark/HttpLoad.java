@@ -0,0 +1,76 @@
+package study.datajpa.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 벤치마크용 HTTP 부하 발생기
+ * clients개의 요청을 한꺼번에 보내고 전부 응답받을 때까지 기다린다.
+ */
+public class HttpLoad implements AutoCloseable {
+
+    private final String baseUrl;
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(executor)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    public HttpLoad(ConfigurableApplicationContext context) {
+        this.baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    public void fire(int clients, Supplier<String> path, Responses responses) {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<HttpResponse<Void>>[] requests = new CompletableFuture[clients];
+        for (int i = 0; i < clients; i++) {
+            requests[i] = client.sendAsync(HttpRequest.newBuilder(URI.create(baseUrl + path.get())).build(),
+                    HttpResponse.BodyHandlers.discarding());
+        }
+
+        for (CompletableFuture<HttpResponse<Void>> request : requests) {
+            try {
+                int status = request.join().statusCode();
+                if (status == 200) {
+                    responses.ok++;
+                } else if (status == 503) {
+                    responses.rejected++;
+                } else {
+                    responses.failed++;
+                }
+            } catch (RuntimeException e) {
+                responses.failed++;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+
+    // 응답 상태별 건수. JMH 결과에 보조 지표로 찍힌다.
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Responses {
+
+        public long ok;
+        public long rejected;
+        public long failed;
+
+    }
+
+}
@@ -0,0 +1,86 @@
+package study.datajpa.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberProjection;
+import study.datajpa.repository.MemberRepository;
+
+/**
+ * 회원 + 팀 이름 네이티브 조회. 행 단위 점수 (Throughput = 초당 행 수, gc.alloc.rate.norm = 행당 할당 바이트)
+ * - tupleProxy: findByNativeProjection. Tuple 기반 MemberProjection 프록시 (+ Page의 count 쿼리)
+ * - rowMapper: findMemberDtoSlice. JdbcTemplate + ConstructorRowMapper -> MemberDto (키셋, count 없음)
+ *
+ * 둘 다 첫 페이지 ROWS행. 조인 조건을 고치기 전의 findByNativeProjection은 member x team 행을 만들었다.
+ *
+ * ./gradlew jmh -PjmhIncludes=NativeProjectionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NativeProjectionBenchmark {
+
+    private static final int MEMBERS = 10_000;
+    private static final int ROWS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, MEMBERS, 100);
+
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void tupleProxy(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> {
+            for (MemberProjection projection : memberRepository.findByNativeProjection(PageRequest.of(0, ROWS))) {
+                bh.consume(projection.getId());
+                bh.consume(projection.getUsername());
+                bh.consume(projection.getTeamName());
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void rowMapper(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> {
+            for (MemberDto dto : memberRepository.findMemberDtoSlice(null, ROWS)) {
+                bh.consume(dto.getId());
+                bh.consume(dto.getUsername());
+                bh.consume(dto.getTeamName());
+            }
+        });
+    }
+
+}
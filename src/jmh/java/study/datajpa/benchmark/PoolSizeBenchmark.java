@@ -0,0 +1,86 @@
+package study.datajpa.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * 커넥션 풀 크기별 처리량. 같은 부하(clients개 동시 요청)를 풀 크기만 바꿔서 돌린다.
+ * 반복(iteration)마다 풀 대기 시간(hikaricp.connections.acquire)과 SQL 실행 시간(datajpa.sql.statement) 평균을 찍는다.
+ * -> 풀을 키워도 처리량이 그대로고 SQL 시간만 늘면 DB가 병목, 풀 대기가 대부분이면 풀이 병목
+ *
+ * ./gradlew jmh -PjmhIncludes=PoolSizeBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PoolSizeBenchmark {
+
+    @Param({"10000"})
+    int members;
+
+    @Param({"200"})
+    int clients;
+
+    @Param({"2", "5", "10", "20", "50"})
+    int poolSize;
+
+    @Param({"/members/{id}", "/members?page={page}&size=20", "/members?page={page}&size=20&count=CACHED"})
+    String endpoint;
+
+    private ConfigurableApplicationContext context;
+    private MeterRegistry meterRegistry;
+    private HttpLoad load;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "spring.datasource.hikari.minimum-idle=" + poolSize,
+                "spring.datasource.hikari.connection-timeout=30000",
+                "server.tomcat.threads.max=" + clients);
+        BenchmarkContext.seed(context, members, 100);
+        meterRegistry = context.getBean(MeterRegistry.class);
+        load = new HttpLoad(context);
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+        double statementMillis = meterRegistry.find("datajpa.sql.statement").timers().stream()
+                .mapToDouble(timer -> timer.totalTime(TimeUnit.MILLISECONDS)).sum();
+        long statements = meterRegistry.find("datajpa.sql.statement").timers().stream()
+                .mapToLong(Timer::count).sum();
+
+        System.out.printf("%n[pool=%d] acquire mean %.3f ms, max %.3f ms | statement mean %.3f ms%n", poolSize,
+                acquire == null ? 0 : acquire.mean(TimeUnit.MILLISECONDS),
+                acquire == null ? 0 : acquire.max(TimeUnit.MILLISECONDS),
+                statements == 0 ? 0 : statementMillis / statements);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        load.close();
+        context.close();
+    }
+
+
+    @Benchmark
+    public void concurrentClients(HttpLoad.Responses responses) {
+        load.fire(clients, () -> BenchmarkContext.path(endpoint, members), responses);
+    }
+
+}
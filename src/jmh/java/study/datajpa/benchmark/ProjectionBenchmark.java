@@ -0,0 +1,183 @@
+package study.datajpa.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.entity.Member;
+import study.datajpa.repository.NestedClosedProjections;
+import study.datajpa.repository.UsernameOnly;
+import study.datajpa.repository.support.ProjectionCompiler;
+
+/**
+ * 인터페이스 프로젝션: Spring Data 방식(JDK 프록시) vs ProjectionCompiler(생성된 클래스)
+ * - closed: Spring Data는 Tuple -> Map 기반 프록시 / 필요한 컬럼만 생성자로
+ * - open (UsernameOnly, @Value SpEL): Spring Data는 엔티티 전체 조회 + 행마다 SpEL / 참조 컬럼만 + 컴파일된 식
+ * - nested (NestedClosedProjections): Spring Data는 Team 엔티티 전체를 조인해서 로딩 / 팀 id, name 컬럼만. closed와 비용이 같아야 한다
+ *
+ * 한 번 조회에 ROWS행. 점수는 행 단위 (Throughput = 초당 행 수, gc.alloc.rate.norm = 행당 할당 바이트)
+ * Spring Data 방식은 리포지토리가 하는 일을 같은 ProjectionFactory로 그대로 재현했다.
+ * (findProjectionsByUsername는 이제 ProjectionCompiler를 쓰므로)
+ *
+ * ./gradlew jmh -PjmhIncludes=ProjectionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ProjectionBenchmark {
+
+    private static final int MEMBERS = 10_000;
+    private static final int ROWS = 1000; // username 하나당 회원 수
+
+    @Param({"closed", "open", "nested"})
+    String shape;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private TransactionTemplate readOnly;
+    private ProjectionCompiler projectionCompiler;
+    private SpelAwareProxyProjectionFactory proxyFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, MEMBERS, 10, MEMBERS / ROWS);
+
+        em = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        projectionCompiler = context.getBean(ProjectionCompiler.class);
+        proxyFactory = new SpelAwareProxyProjectionFactory();
+        proxyFactory.setBeanFactory(context.getBeanFactory());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void proxy(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> {
+            if ("closed".equals(shape)) {
+                closedProxies().forEach(view -> consume(view, bh));
+            } else if ("nested".equals(shape)) {
+                nestedProxies().forEach(view -> consume(view, bh));
+            } else {
+                openProxies().forEach(view -> bh.consume(view.getUsername()));
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void compiled(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> {
+            Map<String, Object> parameters = Collections.singletonMap("username", "bench1");
+            if ("closed".equals(shape)) {
+                projectionCompiler.list(em, Member.class, MemberSummary.class, "e.username = :username", parameters)
+                        .forEach(view -> consume(view, bh));
+            } else if ("nested".equals(shape)) {
+                projectionCompiler.list(em, Member.class, NestedClosedProjections.class, "e.username = :username", parameters)
+                        .forEach(view -> consume(view, bh));
+            } else {
+                projectionCompiler.list(em, Member.class, UsernameOnly.class, "e.username = :username", parameters)
+                        .forEach(view -> bh.consume(view.getUsername()));
+            }
+        });
+    }
+
+
+    // Spring Data JPA: 닫힌 인터페이스면 프로퍼티만 Tuple로 조회해서 Map 기반 프록시로
+    private List<MemberSummary> closedProxies() {
+        List<Tuple> tuples = em.createQuery("select e.id as id, e.username as username, e.age as age"
+                        + " from Member e where e.username = :username", Tuple.class)
+                .setParameter("username", "bench1")
+                .getResultList();
+        List<MemberSummary> result = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> values = new HashMap<>();
+            for (TupleElement<?> element : tuple.getElements()) {
+                values.put(element.getAlias(), tuple.get(element));
+            }
+            result.add(proxyFactory.createProjection(MemberSummary.class, values));
+        }
+        return result;
+    }
+
+    // 중첩 프로젝션: 연관은 엔티티째 select (Team 전체 컬럼 + 영속성 컨텍스트 등록) -> 엔티티 기반 프록시
+    private List<NestedClosedProjections> nestedProxies() {
+        List<Tuple> tuples = em.createQuery("select e.username as username, t as team"
+                        + " from Member e left join e.team t where e.username = :username", Tuple.class)
+                .setParameter("username", "bench1")
+                .getResultList();
+        List<NestedClosedProjections> result = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> values = new HashMap<>();
+            for (TupleElement<?> element : tuple.getElements()) {
+                values.put(element.getAlias(), tuple.get(element));
+            }
+            result.add(proxyFactory.createProjection(NestedClosedProjections.class, values));
+        }
+        return result;
+    }
+
+    // 열린 인터페이스면 엔티티를 조회해서 엔티티 기반 프록시로 (getter마다 SpEL 평가)
+    private List<UsernameOnly> openProxies() {
+        List<Member> members = em.createQuery("select e from Member e where e.username = :username", Member.class)
+                .setParameter("username", "bench1")
+                .getResultList();
+        List<UsernameOnly> result = new ArrayList<>(members.size());
+        for (Member member : members) {
+            result.add(proxyFactory.createProjection(UsernameOnly.class, member));
+        }
+        return result;
+    }
+
+    private static void consume(NestedClosedProjections view, Blackhole bh) {
+        bh.consume(view.getUsername());
+        bh.consume(view.getTeam().getName());
+    }
+
+    private static void consume(MemberSummary view, Blackhole bh) {
+        bh.consume(view.getId());
+        bh.consume(view.getUsername());
+        bh.consume(view.getAge());
+    }
+
+
+    public interface MemberSummary {
+        Long getId();
+        String getUsername();
+        int getAge();
+    }
+
+}
@@ -0,0 +1,81 @@
+package study.datajpa.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.CountStrategy;
+import study.datajpa.repository.MemberRepository;
+
+/**
+ * readOnly 트랜잭션 전후 비교. 요청 하나 = 트랜잭션 하나
+ * gc 프로파일러의 gc.alloc.rate.norm 이 요청당 힙 할당량 (스냅샷 유무 차이)
+ *
+ * ./gradlew jmh -PjmhIncludes=ReadOnlyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReadOnlyBenchmark {
+
+    @Param({"10000"})
+    int members;
+
+    @Param({"false", "true"})
+    boolean readOnly;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, members, 100);
+
+        memberRepository = context.getBean(MemberRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(readOnly);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+
+    // GET /members 와 같은 작업
+    @Benchmark
+    public Page<MemberDto> listPage() {
+        return transactionTemplate.execute(status ->
+                memberRepository.findAll(PageRequest.of(10, 100, Sort.by("username")), CountStrategy.EXACT).map(MemberDto::new));
+    }
+
+    // 엔티티를 많이 읽는 요청. readOnly가 아니면 커밋 시 전부 더티 체킹
+    @Benchmark
+    public int loadAllEntities() {
+        return transactionTemplate.execute(status -> {
+            List<Member> result = memberRepository.findMemberCustom();
+            return result.size();
+        });
+    }
+
+}
@@ -0,0 +1,166 @@
+package study.datajpa.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberProjection;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberSpec;
+import study.datajpa.repository.NestedClosedProjections;
+import study.datajpa.repository.UsernameOnly;
+import study.datajpa.repository.UsernameOnlyDto;
+
+/**
+ * MemberRepository 조회 방식 비교
+ * - 연관 로딩: fetch join / @EntityGraph / 지연 로딩(N+1)
+ * - DTO, 프로젝션(closed DTO / open / nested), 네이티브 프로젝션, Specification
+ *
+ * 모든 조회는 readOnly 트랜잭션 안에서 실행하고, 연관 로딩 비교는 team 이름까지 읽는다.
+ * Team은 2차 캐시 대상이라 지연 로딩은 워밍업 이후 캐시 적중 비용을 측정하게 된다.
+ *
+ * ./gradlew jmh -PjmhIncludes=RepositoryAccessBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RepositoryAccessBenchmark {
+
+    @Param({"1000", "10000"})
+    int members;
+
+    @Param({"50"})
+    int teams;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+
+    // username 하나당 100명
+    private String username;
+    private Specification<Member> spec;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, members, teams, Math.max(1, members / 100));
+
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        username = "bench1";
+        spec = MemberSpec.username(username).and(MemberSpec.teamName("team2"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+
+    /* 연관 로딩 */
+
+    @Benchmark
+    public void findMemberFetchJoin(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> consumeTeams(memberRepository.findMemberFetchJoin(), bh));
+    }
+
+    @Benchmark
+    public void findMemberEntityGraph(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> consumeTeams(memberRepository.findMemberEntityGraph(), bh));
+    }
+
+    // 오버라이드한 findAll() (@EntityGraph)
+    @Benchmark
+    public void findAllEntityGraph(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> consumeTeams(memberRepository.findAll(), bh));
+    }
+
+    // select m from Member m 후 team 접근 -> 팀 수만큼 추가 조회 (N+1)
+    @Benchmark
+    public void lazyLoading(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> consumeTeams(memberRepository.findMemberCustom(), bh));
+    }
+
+
+    /* DTO / 프로젝션 */
+
+    @Benchmark
+    public List<MemberDto> findMemberDto() {
+        return readOnly.execute(status -> memberRepository.findMemberDto());
+    }
+
+    @Benchmark
+    public void closedProjectionDto(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> {
+            for (UsernameOnlyDto dto : memberRepository.findProjectionsByUsername(username, UsernameOnlyDto.class)) {
+                bh.consume(dto.getUsername());
+            }
+        });
+    }
+
+    // @Value 식은 ProjectionCompiler가 자바 함수로 바꾼다. 참조하는 컬럼만 조회 (ProjectionBenchmark)
+    @Benchmark
+    public void openProjection(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> {
+            for (UsernameOnly projection : memberRepository.findProjectionsByUsername(username, UsernameOnly.class)) {
+                bh.consume(projection.getUsername());
+            }
+        });
+    }
+
+    @Benchmark
+    public void nestedClosedProjection(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> {
+            for (NestedClosedProjections projection : memberRepository.findProjectionsByUsername(username, NestedClosedProjections.class)) {
+                bh.consume(projection.getUsername());
+                bh.consume(projection.getTeam().getName());
+            }
+        });
+    }
+
+    @Benchmark
+    public void findByNativeProjection(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> {
+            for (MemberProjection projection : memberRepository.findByNativeProjection(PageRequest.of(0, 100))) {
+                bh.consume(projection.getUsername());
+                bh.consume(projection.getTeamName());
+            }
+        });
+    }
+
+
+    /* Specification */
+
+    @Benchmark
+    public List<Member> specification() {
+        return readOnly.execute(status -> memberRepository.findAll(spec));
+    }
+
+
+    private static void consumeTeams(List<Member> result, Blackhole bh) {
+        for (Member member : result) {
+            bh.consume(member.getTeam().getName());
+        }
+    }
+
+}
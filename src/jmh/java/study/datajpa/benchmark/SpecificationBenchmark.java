@@ -0,0 +1,101 @@
+package study.datajpa.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberSpec;
+import study.datajpa.repository.support.QuerySpec;
+
+/**
+ * MemberSpec 조합 조회. Criteria(findAll(Specification)) vs 컴파일된 템플릿(findAllCompiled)
+ * 호출마다 팀 이름/나이가 바뀐다. literalHandling=auto면 Criteria의 숫자 값이 SQL에 들어가 쿼리 플랜 캐시 미스가 계속 난다.
+ * 끝날 때 쿼리 플랜 캐시 적중/미스를 출력 (/cache/query-plans 와 같은 값)
+ *
+ * ./gradlew jmh -PjmhIncludes=SpecificationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpecificationBenchmark {
+
+    @Param({"10000"})
+    int members;
+
+    @Param({"100"})
+    int teams;
+
+    @Param({"auto", "bind"})
+    String literalHandling;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.jpa.properties.hibernate.criteria.literal_handling_mode=" + literalHandling,
+                "spring.jpa.properties.hibernate.generate_statistics=true"); // 쿼리 플랜 캐시 적중 수 (기본은 off)
+        BenchmarkContext.seed(context, members, teams);
+
+        memberRepository = context.getBean(MemberRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nquery plan cache (literalHandling=%s): hits=%d, misses=%d%n",
+                literalHandling, statistics.getQueryPlanCacheHitCount(), statistics.getQueryPlanCacheMissCount());
+        context.close();
+    }
+
+
+    @Benchmark
+    public int criteria() {
+        return transactionTemplate.execute(status -> {
+            List<Member> result = memberRepository.findAll(randomSpec());
+            return result.size();
+        });
+    }
+
+    @Benchmark
+    public int compiled() {
+        return transactionTemplate.execute(status -> {
+            List<Member> result = memberRepository.findAllCompiled(randomSpec());
+            return result.size();
+        });
+    }
+
+    // seed: team = "team" + (1..teams), age = 0..99
+    private QuerySpec<Member> randomSpec() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return MemberSpec.teamName("team" + (random.nextInt(teams) + 1))
+                .and(MemberSpec.ageGreaterThanOrEqual(random.nextInt(100)));
+    }
+
+}
@@ -0,0 +1,99 @@
+package study.datajpa.benchmark;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+/**
+ * SQL 로그 설정별 요청 비용
+ * - legacy : p6spy 로그 + org.hibernate.SQL debug + format_sql (이전 기본 설정)
+ * - sampled: SampledSqlLogger 1% 샘플 (현재 기본 설정)
+ * - off    : SQL 로그 없음 (기준선)
+ * 로그는 파일(build/jmh-sql.log)로만 쓴다. 콘솔 출력 비용이 섞이지 않게
+ *
+ * ./gradlew jmh -PjmhIncludes=SqlLoggingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class SqlLoggingBenchmark {
+
+    @Param({"10000"})
+    int members;
+
+    @Param({"legacy", "sampled", "off"})
+    String logging;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(properties(logging));
+        BenchmarkContext.seed(context, members, 100);
+        memberRepository = context.getBean(MemberRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private static String[] properties(String logging) {
+        String[] file = {"logging.file.name=build/jmh-sql.log", "logging.pattern.console="};
+        switch (logging) {
+            case "legacy":
+                return concat(file,
+                        "datajpa.sql-log.enabled=false",
+                        "decorator.datasource.p6spy.enable-logging=true",
+                        "logging.level.p6spy=info",
+                        "spring.jpa.properties.hibernate.format_sql=true",
+                        "logging.level.org.hibernate.SQL=debug");
+            case "sampled":
+                return concat(file,
+                        "datajpa.sql-log.enabled=true",
+                        "logging.level.study.datajpa.sql=info");
+            default:
+                return concat(file, "datajpa.sql-log.enabled=false");
+        }
+    }
+
+    private static String[] concat(String[] base, String... more) {
+        String[] result = new String[base.length + more.length];
+        System.arraycopy(base, 0, result, 0, base.length);
+        System.arraycopy(more, 0, result, base.length, more.length);
+        return result;
+    }
+
+
+    // 2차 캐시를 거치지 않도록 JPQL 조회
+    @Benchmark
+    public List<Member> findByUsername() {
+        int n = ThreadLocalRandom.current().nextInt(members);
+        return memberRepository.findByUsernameAndAgeGreaterThan("bench" + n, -1);
+    }
+
+    @Benchmark
+    public Optional<Member> findById() {
+        return memberRepository.findById(BenchmarkContext.ID_OFFSET + 1 + ThreadLocalRandom.current().nextInt(members));
+    }
+
+}
@@ -0,0 +1,69 @@
+package study.datajpa.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 기동 시간 = SpringApplication.run 시작부터 첫 요청(/members) 200 응답까지
+ * 콜드 스타트를 재야 하므로 측정마다 새 JVM (fork 5번, 워밍업 없음)
+ * 기동 완료(run 반환)까지 걸린 시간은 따로 찍는다.
+ *
+ * ./gradlew jmh -PjmhIncludes=StartupBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(5)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class StartupBenchmark {
+
+    @Param({"default", "fast"})
+    String profile;
+
+    private ConfigurableApplicationContext context;
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+
+    @Benchmark
+    public int timeToFirstRequest() throws Exception {
+        long start = System.nanoTime();
+        context = "fast".equals(profile)
+                ? BenchmarkContext.start("spring.profiles.include=fast")
+                : BenchmarkContext.start();
+        long started = System.nanoTime();
+
+        String url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/members";
+        HttpResponse<Void> response = HttpClient.newHttpClient()
+                .send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.discarding());
+        long firstResponse = System.nanoTime();
+
+        System.out.printf("%n[%s] started %d ms, first request %d ms%n", profile,
+                TimeUnit.NANOSECONDS.toMillis(started - start), TimeUnit.NANOSECONDS.toMillis(firstResponse - started));
+        return response.statusCode();
+    }
+
+}
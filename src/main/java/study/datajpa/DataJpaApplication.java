@@ -1,7 +1,7 @@
 package study.datajpa;
 
-import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -9,9 +9,11 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
+import study.datajpa.config.CachingAuditorAware;
+
 @SpringBootApplication
 // @EnableJpaRepositories(basePackages = "study.datajpa.repository") // boot가 자동 설정: 이 패키지 포함 하위 패키지들
-@EnableJpaAuditing // (modifyOnCreate = false) : 생성시 modify 컬럼은 null로
+@EnableJpaAuditing // (modifyOnCreate = false) : 생성시 modify 컬럼은 null로. BaseEntity는 AuditEntityListener가 처리, Item만 사용
 public class DataJpaApplication {
 
 	public static void main(String[] args) {
@@ -29,7 +31,12 @@ public class DataJpaApplication {
 			}
 		}; */
 
-		return () -> Optional.of(UUID.randomUUID().toString());
+		// return () -> Optional.of(UUID.randomUUID().toString());
+		// -> 저장/수정마다 SecureRandom + Optional 생성. 트랜잭션마다 한 번만 구하고, SecureRandom도 쓰지 않는다.
+		return new CachingAuditorAware(() -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			return new UUID(random.nextLong(), random.nextLong()).toString();
+		});
 	}
 
 }
@@ -0,0 +1,48 @@
+package study.datajpa.config;
+
+import java.util.concurrent.Executor;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * @Async 기본 실행기 (MemberRepository의 비동기 조회 메서드)
+ *
+ * Executor 빈으로 등록하면 부트의 applicationTaskExecutor가 빠지므로 AsyncConfigurer로만 넘긴다.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig implements AsyncConfigurer {
+
+    private final BoundedAsyncExecutor executor;
+
+    public AsyncConfig(@Value("${datajpa.async.max-concurrency:0}") int maxConcurrency,
+                       @Value("${datajpa.async.max-waiting:1000}") int maxWaiting,
+                       @Value("${datajpa.async.virtual-threads:false}") boolean virtualThreads,
+                       @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize) {
+        // 0이면 커넥션 풀 크기만큼. 커넥션보다 많이 동시에 실행해봐야 풀에서 기다릴 뿐이다.
+        // 작업 하나가 커넥션을 둘 이상 잡으면 (ex. PageCounter의 ASYNC count) 작업끼리 풀을 나눠 갖고 서로 기다리게 되므로
+        // @Async 메서드는 커넥션 하나로 끝나야 한다. (findAllAsync는 ASYNC count를 같은 커넥션에서 실행)
+        int concurrency = maxConcurrency > 0 ? maxConcurrency : connectionPoolSize;
+        this.executor = new BoundedAsyncExecutor(concurrency, maxWaiting, virtualThreads);
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return executor;
+    }
+
+    public BoundedAsyncExecutor getExecutor() {
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+}
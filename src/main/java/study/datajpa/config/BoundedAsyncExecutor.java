@@ -0,0 +1,104 @@
+package study.datajpa.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 비동기 조회(@Async) 실행기
+ *
+ * - 동시에 실행하는 작업은 maxConcurrency개 (= 커넥션 풀 크기). 나머지는 커넥션을 잡지 않고 기다린다.
+ *   -> 작업이 많아도 Hikari connectionTimeout까지 커넥션을 기다리다 실패하는 일이 없다.
+ * - 기다리는 작업이 maxWaiting개를 넘으면 바로 거절 (TaskRejectedException) -> 컨트롤러에서 503
+ * - virtualThreads: JDK 21 이상이면 작업마다 가상 스레드. 낮은 JDK에서는 고정 크기 스레드 풀로 대체
+ */
+@Slf4j
+public class BoundedAsyncExecutor implements Executor {
+
+    private final ExecutorService delegate;
+    private final boolean virtual;
+    private final int maxConcurrency;
+    private final int maxWaiting;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public BoundedAsyncExecutor(int maxConcurrency, int maxWaiting, boolean virtualThreads) {
+        this.maxConcurrency = maxConcurrency;
+        this.maxWaiting = maxWaiting;
+        this.permits = new Semaphore(maxConcurrency);
+
+        ExecutorService virtualExecutor = virtualThreads ? newVirtualThreadPerTaskExecutor() : null;
+        this.virtual = virtualExecutor != null;
+        this.delegate = virtual ? virtualExecutor : newPlatformThreadPool(maxConcurrency);
+    }
+
+
+    @Override
+    public void execute(Runnable task) {
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            throw new TaskRejectedException("async executor saturated: " + maxWaiting + " tasks waiting");
+        }
+
+        try {
+            delegate.execute(() -> {
+                permits.acquireUninterruptibly();
+                waiting.decrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            waiting.decrementAndGet();
+            throw new TaskRejectedException("async executor is shut down", e);
+        }
+    }
+
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    public int getWaitingCount() {
+        return waiting.get();
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+
+    private static ExecutorService newPlatformThreadPool(int threads) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("async-query-");
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+
+    // 소스/타깃은 11이라 리플렉션으로 찾는다.
+    // (가상 스레드는 synchronized 블록에서 캐리어 스레드에 고정된다. H2/드라이버 내부 락이 많으면 이득이 줄어듦)
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.warn("virtual threads are not available on Java {}. falling back to a platform thread pool",
+                    System.getProperty("java.version"));
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package study.datajpa.config;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 작업 단위(트랜잭션)마다 한 번만 작성자를 구한다.
+ * 같은 트랜잭션에서 저장/수정되는 엔티티는 모두 같은 작성자이므로 매번 구할 필요가 없다.
+ * 트랜잭션 밖에서는 캐시하지 않는다.
+ */
+public class CachingAuditorAware implements AuditorAware<String> {
+
+    private final Supplier<String> auditorResolver;
+    private final ThreadLocal<Optional<String>> current = new ThreadLocal<>();
+
+    public CachingAuditorAware(Supplier<String> auditorResolver) {
+        this.auditorResolver = auditorResolver;
+    }
+
+    @Override
+    public Optional<String> getCurrentAuditor() {
+        Optional<String> auditor = current.get();
+        if (auditor != null) {
+            return auditor;
+        }
+
+        auditor = Optional.ofNullable(auditorResolver.get());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            current.set(auditor);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    current.remove();
+                }
+            });
+        }
+        return auditor;
+    }
+
+}
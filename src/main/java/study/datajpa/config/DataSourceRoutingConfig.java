@@ -0,0 +1,77 @@
+package study.datajpa.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * primary / replica 라우팅 DataSource
+ * datajpa.datasource.replicas 가 있을 때만 등록된다. 없으면 부트 기본 DataSource 하나.
+ *
+ * 커넥션 풀 설정(spring.datasource.hikari.*)은 모든 풀에 같이 적용한다.
+ * 풀 메트릭(hikaricp.*)은 pool 태그(primary, replica-0, ...)로 구분된다.
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+@ConditionalOnProperty(prefix = "datajpa.datasource", name = "replicas[0].url")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties primaryProperties, DataSourceRoutingProperties routingProperties,
+                                 Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<Object, Object> targets = new LinkedHashMap<>();
+
+        HikariDataSource primary = pool(ReplicaRoutingDataSource.PRIMARY, primaryProperties.getUrl(),
+                primaryProperties.determineUsername(), primaryProperties.determinePassword(), environment, meterRegistry);
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primary);
+
+        List<String> replicaKeys = new ArrayList<>();
+        for (int i = 0; i < routingProperties.getReplicas().size(); i++) {
+            DataSourceRoutingProperties.Replica replica = routingProperties.getReplicas().get(i);
+            String key = "replica-" + i;
+            targets.put(key, pool(key, replica.getUrl(), replica.getUsername(), replica.getPassword(), environment, meterRegistry));
+            replicaKeys.add(key);
+        }
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicaKeys, routingProperties.getReplicaLag().toMillis());
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        // 트랜잭션 시작 시점이 아니라 첫 쿼리 시점에 커넥션을 고르도록
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private static HikariDataSource pool(String name, String url, String username, String password, Environment environment,
+                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource dataSource = new HikariDataSource();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        // 부트는 DataSource 빈으로 노출된 풀(primary)만 메트릭을 붙이므로 직접 붙인다
+        meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return dataSource;
+    }
+
+}
@@ -0,0 +1,35 @@
+package study.datajpa.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * datajpa.datasource.*
+ * primary는 spring.datasource 설정을 그대로 쓴다.
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "datajpa.datasource")
+public class DataSourceRoutingProperties {
+
+    /** 쓰기 후 primary에서 읽는 시간. replica 복제 지연보다 길게 */
+    private Duration replicaLag = Duration.ofSeconds(1);
+
+    /** 비어 있으면 라우팅하지 않는다 */
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Getter @Setter
+    public static class Replica {
+
+        private String url;
+        private String username;
+        private String password;
+
+    }
+
+}
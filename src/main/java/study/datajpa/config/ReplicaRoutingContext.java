@@ -0,0 +1,98 @@
+package study.datajpa.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * 쓰기 직후 읽기를 primary로 고정(pin)한다. (replica 복제 지연 동안 방금 쓴 데이터가 안 보이는 문제)
+ * - HTTP 요청 안: 요청 속성. 요청이 끝나면 풀린다.
+ * - 요청 밖 (배치, 테스트): ThreadLocal
+ *
+ * 세션에 두지 않는다. (REST API에 HttpSession / JSESSIONID가 생긴다)
+ */
+public final class ReplicaRoutingContext {
+
+    static final String REQUEST_ATTRIBUTE = ReplicaRoutingContext.class.getName() + ".PINNED_UNTIL";
+
+    private static final ThreadLocal<Long> PINNED_UNTIL = new ThreadLocal<>();
+
+    private ReplicaRoutingContext() {
+    }
+
+    /**
+     * 현재 read-write 트랜잭션이 커밋되면 그때부터 lagMillis 동안 primary에서 읽는다.
+     * 롤백되면 고정하지 않는다. 한 트랜잭션에서 여러 번 불려도 한 번만 등록한다.
+     */
+    static void markWriteOnCommit(long lagMillis) {
+        if (lagMillis <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        boolean registered = TransactionSynchronizationManager.getSynchronizations().stream()
+                .anyMatch(synchronization -> synchronization instanceof PinOnCommit);
+        if (!registered) {
+            TransactionSynchronizationManager.registerSynchronization(new PinOnCommit(lagMillis));
+        }
+    }
+
+    /**
+     * 쓰기 발생. 지금부터 lagMillis 동안 primary에서 읽는다.
+     */
+    static void markWrite(long lagMillis) {
+        if (lagMillis <= 0) {
+            return;
+        }
+
+        Long until = System.currentTimeMillis() + lagMillis;
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(REQUEST_ATTRIBUTE, until, RequestAttributes.SCOPE_REQUEST);
+        } else {
+            PINNED_UNTIL.set(until); // 요청 스레드에 남기면 다음 요청(다른 사용자)까지 고정되므로 요청 밖에서만
+        }
+    }
+
+    static boolean isPinnedToPrimary() {
+        long now = System.currentTimeMillis();
+
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            Object until = request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            return until instanceof Long && (Long) until > now;
+        }
+
+        Long until = PINNED_UNTIL.get();
+        if (until != null) {
+            if (until > now) {
+                return true;
+            }
+            PINNED_UNTIL.remove();
+        }
+        return false;
+    }
+
+    /**
+     * 현재 스레드의 고정을 푼다. (테스트, 배치 작업 경계)
+     */
+    public static void clear() {
+        PINNED_UNTIL.remove();
+    }
+
+
+    private static class PinOnCommit implements TransactionSynchronization {
+
+        private final long lagMillis;
+
+        PinOnCommit(long lagMillis) {
+            this.lagMillis = lagMillis;
+        }
+
+        @Override
+        public void afterCommit() {
+            markWrite(lagMillis);
+        }
+
+    }
+
+}
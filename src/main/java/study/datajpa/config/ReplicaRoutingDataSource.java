@@ -0,0 +1,47 @@
+package study.datajpa.config;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 트랜잭션 속성으로 커넥션을 고른다.
+ * - readOnly 트랜잭션 -> replica 중 하나 (라운드 로빈)
+ * - 그 외 (쓰기 트랜잭션, 트랜잭션 없음) -> primary
+ * - 쓰기 트랜잭션이 커밋된 뒤 replicaLag 동안은 readOnly라도 primary (같은 요청 / 요청 밖이면 같은 스레드)
+ *
+ * 트랜잭션 속성이 정해진 뒤 커넥션을 얻어야 하므로 LazyConnectionDataSourceProxy로 감싸서 쓴다.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final List<String> replicas;
+    private final long replicaLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(List<String> replicas, long replicaLagMillis) {
+        this.replicas = replicas;
+        this.replicaLagMillis = replicaLagMillis;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+
+        if (inTransaction && !readOnly) {
+            ReplicaRoutingContext.markWriteOnCommit(replicaLagMillis);
+            return PRIMARY;
+        }
+
+        if (!readOnly || replicas.isEmpty() || ReplicaRoutingContext.isPinnedToPrimary()) {
+            return PRIMARY;
+        }
+
+        return replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+    }
+
+}
@@ -0,0 +1,26 @@
+package study.datajpa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 스키마는 Flyway 마이그레이션(db/migration)으로 관리한다. Hibernate는 validate만
+ * datajpa.schema.clean-on-start: 기동할 때마다 스키마를 지우고 다시 만든다. (이전 ddl-auto: create와 같은 동작)
+ * 데이터를 지우므로 기본은 false. local 프로파일(application-local.yml)과 테스트(src/test/resources/config)에서만 켠다.
+ */
+@Configuration
+public class SchemaConfig {
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(@Value("${datajpa.schema.clean-on-start:false}") boolean cleanOnStart) {
+        return flyway -> {
+            if (cleanOnStart) {
+                flyway.clean();
+            }
+            flyway.migrate();
+        };
+    }
+
+}
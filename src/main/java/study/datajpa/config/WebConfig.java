@@ -0,0 +1,26 @@
+package study.datajpa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import study.datajpa.monitor.SqlInspectionInterceptor;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Value("${datajpa.sql-inspection.enabled:true}")
+    private boolean sqlInspectionEnabled;
+
+    @Value("${datajpa.sql-inspection.repeat-threshold:5}")
+    private int repeatThreshold;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (sqlInspectionEnabled) {
+            registry.addInterceptor(new SqlInspectionInterceptor(repeatThreshold));
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+package study.datajpa.controller;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import study.datajpa.dto.CacheStatsDto;
+import study.datajpa.dto.QueryCacheStatsDto;
+import study.datajpa.dto.QueryPlanStatsDto;
+import study.datajpa.repository.support.SpecificationCompiler;
+
+/**
+ * 캐시 통계
+ * - /cache/stats: 2차 캐시 영역별. JCache 구현체가 JMX에 등록한 CacheStatistics MXBean을 그대로 읽는다.
+ * - /cache/queries: 쿼리 캐시 쿼리별 적중률. Hibernate Statistics (generate_statistics: true, local 프로파일에서만 켬. 꺼져 있으면 빈 값)
+ * - /cache/query-plans: (Hibernate Statistics) 쿼리 플랜 캐시, Specification 템플릿 캐시 적중률. 미스가 계속 늘면 값마다 다른 쿼리가 만들어지고 있는 것
+ */
+@RestController
+public class CacheStatsController {
+
+    private static final String CACHE_STATISTICS = "javax.cache:type=CacheStatistics,*";
+
+    private final Statistics statistics;
+    private final SpecificationCompiler specificationCompiler;
+
+    public CacheStatsController(EntityManagerFactory emf, SpecificationCompiler specificationCompiler) {
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        this.specificationCompiler = specificationCompiler;
+    }
+
+    @GetMapping("/cache/stats")
+    public List<CacheStatsDto> regions() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        List<CacheStatsDto> result = new ArrayList<>();
+        for (ObjectName name : server.queryNames(new ObjectName(CACHE_STATISTICS), null)) {
+            result.add(new CacheStatsDto(
+                    name.getKeyProperty("Cache"),
+                    ((Number) server.getAttribute(name, "CacheHits")).longValue(),
+                    ((Number) server.getAttribute(name, "CacheMisses")).longValue(),
+                    ((Number) server.getAttribute(name, "CachePuts")).longValue(),
+                    ((Number) server.getAttribute(name, "CacheEvictions")).longValue(),
+                    ((Number) server.getAttribute(name, "CacheHitPercentage")).floatValue()));
+        }
+        result.sort(Comparator.comparing(CacheStatsDto::getRegion));
+        return result;
+    }
+
+    @GetMapping("/cache/queries")
+    public List<QueryCacheStatsDto> queries() {
+        List<QueryCacheStatsDto> result = new ArrayList<>();
+        for (String query : statistics.getQueries()) {
+            QueryStatistics stats = statistics.getQueryStatistics(query);
+            if (stats.getCacheHitCount() + stats.getCacheMissCount() == 0) {
+                continue; // 캐시 대상이 아닌 쿼리
+            }
+            result.add(new QueryCacheStatsDto(query,
+                    stats.getCacheHitCount(), stats.getCacheMissCount(), stats.getCachePutCount()));
+        }
+        result.sort(Comparator.comparingDouble(QueryCacheStatsDto::getHitRatio));
+        return result;
+    }
+
+    @GetMapping("/cache/query-plans")
+    public QueryPlanStatsDto queryPlans() {
+        return new QueryPlanStatsDto(
+                statistics.getQueryPlanCacheHitCount(), statistics.getQueryPlanCacheMissCount(),
+                specificationCompiler.getTemplateCount(),
+                specificationCompiler.getHitCount(), specificationCompiler.getMissCount());
+    }
+
+}
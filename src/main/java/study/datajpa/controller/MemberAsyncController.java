@@ -0,0 +1,58 @@
+package study.datajpa.controller;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import lombok.RequiredArgsConstructor;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.CountStrategy;
+import study.datajpa.repository.MemberRepository;
+
+/**
+ * MemberController의 비동기 버전
+ * 조회는 AsyncConfig 실행기에서 하고 톰캣 스레드는 바로 반환된다. (서블릿 비동기 요청)
+ * 실행기가 가득 차면 커넥션을 기다리지 않고 503
+ */
+@RestController
+@RequiredArgsConstructor
+public class MemberAsyncController {
+
+    private final MemberRepository memberRepository;
+
+    @GetMapping("/async/members/{id}")
+    public CompletableFuture<String> findMember(@PathVariable("id") Long id) {
+        return memberRepository.findMemberDtoById(id).thenApply(member -> {
+            if (member == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+            }
+            return member.getUsername();
+        });
+    }
+
+    @GetMapping("/async/members")
+    public CompletableFuture<Page<MemberDto>> list(@PageableDefault(size = 5, sort = "username") Pageable pageable,
+                                                   @RequestParam(value = "count", defaultValue = "EXACT") CountStrategy countStrategy) {
+        return memberRepository.findAllAsync(pageable, countStrategy);
+    }
+
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<String> rejected(TaskRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+
+}
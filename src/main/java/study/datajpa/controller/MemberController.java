@@ -1,18 +1,36 @@
 package study.datajpa.controller;
 
-import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.boot.autoconfigure.data.web.SpringDataWebProperties;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import lombok.RequiredArgsConstructor;
+import study.datajpa.dto.CursorSlice;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.CountStrategy;
+import study.datajpa.repository.MemberCursor;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.service.MemberExportService;
 
 
 @RestController
@@ -20,7 +38,11 @@ import study.datajpa.repository.MemberRepository;
 public class MemberController {
     
     private final MemberRepository memberRepository;
+    private final SpringDataWebProperties dataWebProperties;
+    private final MemberExportService memberExportService;
 
+    // 조회 API는 readOnly 트랜잭션: 더티 체킹용 스냅샷을 만들지 않고 flush도 하지 않는다.
+    @Transactional(readOnly = true)
     @GetMapping(value="/members/{id}")
     public String findMember(@PathVariable("id") Long id) {
         Member member = memberRepository.findById(id).get();
@@ -37,23 +59,77 @@ public class MemberController {
     // @Qualifier: 페이징 정보가 둘 이상일 때 접두사로 구분해준다
     // @Qualifier("member") Pageable memberPageable, ...
 
+    // count=EXACT|CACHED|ESTIMATED|ASYNC 로 전체 건수 계산 방식을 고를 수 있다.
+    @Transactional(readOnly = true)
     @GetMapping("/members")
-    public Page<MemberDto> list(@PageableDefault(size = 5, sort = "username") Pageable pageable) {
+    public Page<MemberDto> list(@PageableDefault(size = 5, sort = "username") Pageable pageable,
+                                @RequestParam(value = "count", defaultValue = "EXACT") CountStrategy countStrategy) {
         // Page<Member> page = memberRepository.findAll(pageable);
         // Page<MemberDto> map = page.map(member -> new MemberDto(member.getId(), member.getUsername(), null));
         
-        Page<MemberDto> page = memberRepository.findAll(pageable).map(MemberDto::new);
+        Page<MemberDto> page = memberRepository.findAll(pageable, countStrategy).map(MemberDto::new);
         return page;
     }
 
-    // 엔티티를 그대로 반환하면 안된다. 내부 설계를 노출하는 것과 같음
+    // 키셋 페이징: /members?cursor=&size=20 으로 시작해서 응답의 nextCursor를 계속 넘긴다.
+    // offset, count 쿼리가 없어서 깊은 페이지도 첫 페이지와 비용이 같다. 엔티티 없이 DTO로 바로 (팀 이름 포함)
+    @Transactional(readOnly = true)
+    @GetMapping(value = "/members", params = {"cursor", "!ids"})
+    public CursorSlice<MemberDto> listByCursor(@RequestParam("cursor") String cursor,
+                                               @RequestParam(value = "size", defaultValue = "5") int size) {
+        MemberCursor memberCursor;
+        try {
+            memberCursor = MemberCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+
+        int pageSize = Math.max(1, Math.min(size, dataWebProperties.getPageable().getMaxPageSize()));
+        Slice<MemberDto> slice = memberRepository.findMemberDtoSlice(memberCursor, pageSize);
 
+        List<MemberDto> content = slice.getContent();
+        MemberDto last = slice.hasNext() ? content.get(content.size() - 1) : null;
+        String nextCursor = last != null ? new MemberCursor(last.getUsername(), last.getId()).encode() : null;
 
-    @PostConstruct
-    public void init() {
-        for(int i = 0; i < 40; i++) {
-            memberRepository.save(new Member("user" + i, i));
+        return new CursorSlice<>(content, pageSize, slice.hasNext(), nextCursor);
+    }
+
+    // 여러 건 조회: /members?ids=1,2,3 . 요청한 id 순서대로, 없는 id는 빠진다.
+    // 트랜잭션 없이 호출해서 id가 많으면 청크별로 병렬 조회한다. (findMemberDtoByIds)
+    @GetMapping(value = "/members", params = {"ids", "!cursor"})
+    public List<MemberDto> listByIds(@RequestParam("ids") List<Long> ids) {
+        int maxIds = dataWebProperties.getPageable().getMaxPageSize();
+        if (ids.size() > maxIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids must not exceed " + maxIds);
         }
+
+        Map<Long, MemberDto> found = memberRepository.findMemberDtoByIds(ids).stream()
+                .collect(Collectors.toMap(MemberDto::getId, Function.identity()));
+        return ids.stream()
+                .distinct()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
+
+    // cursor와 ids는 같이 쓸 수 없다. (둘 다 있으면 위 두 매핑 모두 빠지고 여기로)
+    @GetMapping(value = "/members", params = {"cursor", "ids"})
+    public List<MemberDto> listByCursorAndIds() {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "cursor and ids cannot be used together");
+    }
+
+    // 전체 내보내기. 응답 스트림에 바로 쓴다. (format=NDJSON|CSV)
+    @GetMapping("/members/export")
+    public void export(@RequestParam(value = "format", defaultValue = "NDJSON") MemberExportService.Format format,
+                       HttpServletResponse response) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=members." + format.getExtension());
+        memberExportService.export(format, response.getOutputStream());
+    }
+
+    // 엔티티를 그대로 반환하면 안된다. 내부 설계를 노출하는 것과 같음
+
+    // 초기 데이터는 SeedDataLoader (기동 완료 후)
     
 }
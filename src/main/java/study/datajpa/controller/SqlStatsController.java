@@ -0,0 +1,27 @@
+package study.datajpa.controller;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+import study.datajpa.dto.SqlShapeStatsDto;
+import study.datajpa.monitor.SampledSqlLogger;
+
+/**
+ * SQL 모양별 실행 통계 (SampledSqlLogger). 누적 시간이 큰 순서
+ */
+@RestController
+@RequiredArgsConstructor
+public class SqlStatsController {
+
+    private final SampledSqlLogger sqlLogger;
+
+    @GetMapping("/sql/shapes")
+    public List<SqlShapeStatsDto> shapes(@RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return sqlLogger.topShapes(limit);
+    }
+
+}
@@ -0,0 +1,26 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class CacheStatsDto {
+
+    private final String region;
+    private final long hits;
+    private final long misses;
+    private final long puts;
+    private final long evictions;
+    private final float hitPercentage;
+
+    public CacheStatsDto(String region, long hits, long misses, long puts, long evictions, float hitPercentage) {
+        this.region = region;
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+        this.evictions = evictions;
+        this.hitPercentage = hitPercentage;
+    }
+
+}
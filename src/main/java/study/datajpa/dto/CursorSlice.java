@@ -0,0 +1,29 @@
+package study.datajpa.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 키셋 페이징 응답
+ * count 쿼리가 없으므로 totalElements / totalPages는 제공하지 않는다.
+ * 다음 페이지는 nextCursor를 그대로 다시 넘겨주면 된다.
+ */
+@Getter
+@ToString
+public class CursorSlice<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor;
+
+    public CursorSlice(List<T> content, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+}
@@ -0,0 +1,24 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class QueryCacheStatsDto {
+
+    private final String query;
+    private final long hits;
+    private final long misses;
+    private final long puts;
+    private final double hitRatio;
+
+    public QueryCacheStatsDto(String query, long hits, long misses, long puts) {
+        this.query = query;
+        this.hits = hits;
+        this.misses = misses;
+        this.puts = puts;
+        this.hitRatio = hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+}
@@ -0,0 +1,35 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class QueryPlanStatsDto {
+
+    // Hibernate 쿼리 플랜 캐시 (JPQL/Criteria -> SQL 변환 결과)
+    private final long planHits;
+    private final long planMisses;
+    private final double planHitRatio;
+
+    // SpecificationCompiler 템플릿 캐시 (QuerySpec 구조 -> JPQL)
+    private final int templates;
+    private final long templateHits;
+    private final long templateMisses;
+    private final double templateHitRatio;
+
+    public QueryPlanStatsDto(long planHits, long planMisses, int templates, long templateHits, long templateMisses) {
+        this.planHits = planHits;
+        this.planMisses = planMisses;
+        this.planHitRatio = ratio(planHits, planMisses);
+        this.templates = templates;
+        this.templateHits = templateHits;
+        this.templateMisses = templateMisses;
+        this.templateHitRatio = ratio(templateHits, templateMisses);
+    }
+
+    private static double ratio(long hits, long misses) {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+}
@@ -0,0 +1,24 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class SqlShapeStatsDto {
+
+    private final String sql;
+    private final long count;
+    private final double totalMillis;
+    private final double maxMillis;
+    private final double meanMillis;
+
+    public SqlShapeStatsDto(String sql, long count, double totalMillis, double maxMillis) {
+        this.sql = sql;
+        this.count = count;
+        this.totalMillis = totalMillis;
+        this.maxMillis = maxMillis;
+        this.meanMillis = count == 0 ? 0 : totalMillis / count;
+    }
+
+}
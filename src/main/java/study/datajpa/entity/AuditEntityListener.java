@@ -0,0 +1,53 @@
+package study.datajpa.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+import org.springframework.data.domain.AuditorAware;
+
+/**
+ * BaseTimeEntity / BaseEntity 전용 감사 리스너
+ *
+ * AuditingEntityListener는 엔티티마다 애노테이션 메타데이터를 찾아 리플렉션으로 값을 넣는다.
+ * 여기서는 대상 타입이 정해져 있으므로 필드에 직접 넣는다.
+ * 시각은 콜백마다 읽는다. (flush 단위로 고정하면 Hibernate가 preFlush 뒤 postFlush를 부르지 않는 경우 - 변경 없는 auto flush - 에 시각이 멈춘다)
+ * Hibernate가 SpringBeanContainer로 생성하므로 생성자 주입을 받는다.
+ */
+public class AuditEntityListener {
+
+    private final AuditorAware<String> auditorAware;
+
+    public AuditEntityListener(AuditorAware<String> auditorAware) {
+        this.auditorAware = auditorAware;
+    }
+
+    @PrePersist
+    public void prePersist(Object entity) {
+        if (!(entity instanceof BaseTimeEntity)) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now(); // 생성/수정 시각을 같은 값으로
+        ((BaseTimeEntity) entity).markCreated(now);
+
+        if (entity instanceof BaseEntity) {
+            ((BaseEntity) entity).markCreatedBy(auditorAware.getCurrentAuditor().orElse(null));
+        }
+    }
+
+    @PreUpdate
+    public void preUpdate(Object entity) {
+        if (!(entity instanceof BaseTimeEntity)) {
+            return;
+        }
+
+        ((BaseTimeEntity) entity).markModified(LocalDateTime.now());
+
+        if (entity instanceof BaseEntity) {
+            ((BaseEntity) entity).markModifiedBy(auditorAware.getCurrentAuditor().orElse(null));
+        }
+    }
+
+}
@@ -1,25 +1,27 @@
 package study.datajpa.entity;
 
 import javax.persistence.Column;
-import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
 
-import org.springframework.data.annotation.CreatedBy;
-import org.springframework.data.annotation.LastModifiedBy;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
-
 import lombok.Getter;
 
-@EntityListeners(AuditingEntityListener.class)
+// 감사 리스너는 BaseTimeEntity에 등록되어 있다. (AuditEntityListener)
 @MappedSuperclass
 @Getter
 public class BaseEntity extends BaseTimeEntity {
 
-    @CreatedBy
     @Column(updatable = false)
     private String createdBy;
 
-    @LastModifiedBy
     private String lastModifiedBy;
 
+    void markCreatedBy(String auditor) {
+        this.createdBy = auditor;
+        this.lastModifiedBy = auditor;
+    }
+
+    void markModifiedBy(String auditor) {
+        this.lastModifiedBy = auditor;
+    }
+
 }
@@ -6,22 +6,26 @@ import javax.persistence.Column;
 import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
 
-import org.springframework.data.annotation.CreatedDate;
-import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
-
 import lombok.Getter;
 
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners(AuditEntityListener.class) // BaseEntity의 작성자까지 같이 처리
 @MappedSuperclass
 @Getter
 public class BaseTimeEntity {
  
-    @CreatedDate
     @Column(updatable = false)
     private LocalDateTime createdDate;
 
-    @LastModifiedDate
     private LocalDateTime lastModifiedDate;
 
+    // 생성 시 수정일도 같이 채운다. (@EnableJpaAuditing 기본 동작과 같음)
+    void markCreated(LocalDateTime now) {
+        this.createdDate = now;
+        this.lastModifiedDate = now;
+    }
+
+    void markModified(LocalDateTime now) {
+        this.lastModifiedDate = now;
+    }
+
 }
@@ -2,6 +2,7 @@ package study.datajpa.entity;
 
 import java.time.LocalDateTime;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EntityListeners;
 import javax.persistence.Id;
@@ -22,6 +23,7 @@ public class Item implements Persistable<String> {
     private String id;
 
     @CreatedDate // persist 될 때 값이 들어감
+    @Column(updatable = false) // merge로 덮어써도 생성일은 바뀌지 않게
     private LocalDateTime createdDate;
 
     public Item(String id) {
@@ -33,6 +35,10 @@ public class Item implements Persistable<String> {
         return id;
     }
 
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+
     @Override
     public boolean isNew() {
         return createdDate == null;
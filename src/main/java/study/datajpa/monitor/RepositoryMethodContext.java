@@ -0,0 +1,120 @@
+package study.datajpa.monitor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.p6spy.engine.common.StatementInformation;
+
+/**
+ * 지금 실행 중인 리포지토리 메서드 호출 ("MemberRepository.findByUsername")
+ * 호출 동안 실행된 SQL 수와 로딩된 엔티티 수를 모은다. (RepositoryMetrics)
+ * 리포지토리 안에서 다른 리포지토리를 부르면 바깥 호출에 합산된다.
+ */
+public final class RepositoryMethodContext {
+
+    public static final String NONE = "none";
+
+    // 느린 호출 덤프에 남기는 SQL 수
+    private static final int MAX_TRACES = 20;
+
+    private static final ThreadLocal<Invocation> CURRENT = new ThreadLocal<>();
+
+    private RepositoryMethodContext() {
+    }
+
+    public static String current() {
+        Invocation invocation = CURRENT.get();
+        return invocation != null ? invocation.name : NONE;
+    }
+
+    /**
+     * @return 바깥에서 이미 실행 중이면 null (이때는 exit를 부르지 않는다)
+     */
+    static Invocation enter(String name, long captureThresholdNanos) {
+        if (CURRENT.get() != null) {
+            return null;
+        }
+        Invocation invocation = new Invocation(name, captureThresholdNanos);
+        CURRENT.set(invocation);
+        return invocation;
+    }
+
+    static void exit() {
+        CURRENT.remove();
+    }
+
+    static void statementExecuted(StatementInformation statementInformation, long timeElapsedNanos) {
+        Invocation invocation = CURRENT.get();
+        if (invocation != null) {
+            invocation.statementExecuted(statementInformation, timeElapsedNanos);
+        }
+    }
+
+    static void entityLoaded() {
+        Invocation invocation = CURRENT.get();
+        if (invocation != null) {
+            invocation.entities++;
+        }
+    }
+
+
+    static class Invocation {
+
+        private final String name;
+        private final long captureThresholdNanos;
+        private int statements;
+        private int entities;
+        private List<StatementTrace> traces = Collections.emptyList();
+
+        Invocation(String name, long captureThresholdNanos) {
+            this.name = name;
+            this.captureThresholdNanos = captureThresholdNanos;
+        }
+
+        private void statementExecuted(StatementInformation statementInformation, long timeElapsedNanos) {
+            statements++;
+            if (traces.size() >= MAX_TRACES) {
+                return;
+            }
+            if (traces.isEmpty()) {
+                traces = new ArrayList<>();
+            }
+            // 바인딩 값은 지금만 읽을 수 있다. 오래 걸린 SQL만 값을 채운다.
+            String sqlWithValues = timeElapsedNanos >= captureThresholdNanos ? statementInformation.getSqlWithValues() : null;
+            traces.add(new StatementTrace(statementInformation.getSql(), sqlWithValues, timeElapsedNanos));
+        }
+
+        String getName() {
+            return name;
+        }
+
+        int getStatements() {
+            return statements;
+        }
+
+        int getEntities() {
+            return entities;
+        }
+
+        List<StatementTrace> getTraces() {
+            return traces;
+        }
+
+    }
+
+    static class StatementTrace {
+
+        final String sql;
+        final String sqlWithValues;
+        final long nanos;
+
+        StatementTrace(String sql, String sqlWithValues, long nanos) {
+            this.sql = sql;
+            this.sqlWithValues = sqlWithValues;
+            this.nanos = nanos;
+        }
+
+    }
+
+}
@@ -0,0 +1,47 @@
+package study.datajpa.monitor;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+/**
+ * 모든 리포지토리 프록시에 RepositoryMetrics 인터셉터를 붙인다.
+ * 트랜잭션 인터셉터 안쪽이라 @Async 메서드도 실제 실행 스레드에서 측정된다.
+ */
+@Component
+public class RepositoryMethodTagger implements BeanPostProcessor {
+
+    // BeanPostProcessor가 다른 빈을 일찍 만들지 않도록 처음 호출될 때 가져온다
+    private final ObjectProvider<RepositoryMetrics> metricsProvider;
+    private volatile RepositoryMetrics metrics;
+
+    public RepositoryMethodTagger(ObjectProvider<RepositoryMetrics> metricsProvider) {
+        this.metricsProvider = metricsProvider;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport) {
+            ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                    factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) -> {
+                        String repository = repositoryInformation.getRepositoryInterface().getSimpleName();
+                        proxyFactory.addAdvice(measuring(repository));
+                    }));
+        }
+        return bean;
+    }
+
+    private MethodInterceptor measuring(String repository) {
+        return invocation -> {
+            RepositoryMetrics metrics = this.metrics;
+            if (metrics == null) {
+                metrics = metricsProvider.getObject();
+                this.metrics = metrics;
+            }
+            return metrics.invoke(repository, invocation);
+        };
+    }
+
+}
@@ -0,0 +1,238 @@
+package study.datajpa.monitor;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.BaseStream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import study.datajpa.monitor.RepositoryMethodContext.Invocation;
+import study.datajpa.monitor.RepositoryMethodContext.StatementTrace;
+
+/**
+ * 리포지토리 메서드별 측정 (태그 method = "MemberRepository.findByAge")
+ * - datajpa.repository.invocation: 실행 시간 히스토그램 (outcome 태그)
+ * - datajpa.repository.rows: 반환한 행 수 (컬렉션/Page/Slice/Optional/단건)
+ * - datajpa.repository.entities: 로딩된 엔티티 수 (지연 로딩은 호출이 끝난 뒤라 포함되지 않음)
+ * - datajpa.repository.statements: 실행한 SQL 수
+ * - datajpa.repository.slow: slowThreshold를 넘은 호출 수. 인자, SQL(바인딩 값), 실행 계획을 로그로 남긴다.
+ *
+ * 실행 계획은 별도 스레드에서 EXPLAIN으로 구한다. (H2 기준)
+ */
+@Slf4j
+@Component
+public class RepositoryMetrics {
+
+    private static final int MAX_ARGUMENTS_LENGTH = 500;
+
+    private final MeterRegistry meterRegistry;
+    private final EntityManagerFactory emf;
+    private final JdbcTemplate jdbcTemplate;
+    private final long slowThresholdNanos;
+    private final long captureThresholdNanos;
+    private final boolean explain;
+    private final ConcurrentMap<String, Meters> meters = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor slowCallExecutor;
+
+    public RepositoryMetrics(MeterRegistry meterRegistry, EntityManagerFactory emf, JdbcTemplate jdbcTemplate,
+                             @Value("${datajpa.repository-metrics.slow-threshold:500ms}") Duration slowThreshold,
+                             @Value("${datajpa.repository-metrics.capture-threshold:50ms}") Duration captureThreshold,
+                             @Value("${datajpa.repository-metrics.explain:true}") boolean explain) {
+        this.meterRegistry = meterRegistry;
+        this.emf = emf;
+        this.jdbcTemplate = jdbcTemplate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.captureThresholdNanos = captureThreshold.toNanos();
+        this.explain = explain;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("slow-call-dump-");
+        threadFactory.setDaemon(true);
+        // 느린 호출이 몰리면 덤프는 버린다. (카운터는 남음)
+        this.slowCallExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(100), threadFactory, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    // 엔티티 로딩 수: Hibernate PostLoad 이벤트 (2차 캐시에서 조립된 엔티티 포함)
+    @PostConstruct
+    public void registerEntityLoadListener() {
+        SessionFactoryImplementor sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> RepositoryMethodContext.entityLoaded());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        slowCallExecutor.shutdownNow();
+    }
+
+
+    Object invoke(String repository, MethodInvocation invocation) throws Throwable {
+        Invocation call = RepositoryMethodContext.enter(repository + "." + invocation.getMethod().getName(), captureThresholdNanos);
+        if (call == null) {
+            return invocation.proceed();
+        }
+
+        long start = System.nanoTime();
+        Object result = null;
+        boolean success = false;
+        try {
+            result = invocation.proceed();
+            success = true;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            RepositoryMethodContext.exit();
+            record(call, invocation.getArguments(), result, success, elapsed);
+        }
+    }
+
+    private void record(Invocation call, Object[] arguments, Object result, boolean success, long elapsedNanos) {
+        Meters methodMeters = meters.computeIfAbsent(call.getName(), Meters::new);
+
+        (success ? methodMeters.success : methodMeters.error).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        methodMeters.statements.record(call.getStatements());
+        methodMeters.entities.record(call.getEntities());
+        long rows = rows(result);
+        if (rows >= 0) {
+            methodMeters.rows.record(rows);
+        }
+
+        if (elapsedNanos >= slowThresholdNanos) {
+            methodMeters.slow.increment();
+            String args = abbreviate(Arrays.deepToString(arguments));
+            slowCallExecutor.execute(() -> dump(call, args, rows, elapsedNanos));
+        }
+    }
+
+    // 행 수를 알 수 없는 반환 타입(Stream, 수정 쿼리의 int 등)은 -1
+    static long rows(Object result) {
+        if (result instanceof CompletableFuture) {
+            CompletableFuture<?> future = (CompletableFuture<?>) result;
+            if (!future.isDone() || future.isCompletedExceptionally()) {
+                return -1;
+            }
+            return rows(future.join());
+        }
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Number || result instanceof Boolean || result instanceof BaseStream) {
+            return -1;
+        }
+        return 1;
+    }
+
+
+    private void dump(Invocation call, String arguments, long rows, long elapsedNanos) {
+        StringBuilder message = new StringBuilder();
+        message.append(String.format("느린 리포지토리 호출 %s %.1f ms (statements=%d, entities=%d, rows=%d)%n  args: %s",
+                call.getName(), elapsedNanos / 1_000_000.0, call.getStatements(), call.getEntities(), rows, arguments));
+
+        for (StatementTrace trace : call.getTraces()) {
+            String sql = trace.sqlWithValues != null ? trace.sqlWithValues : trace.sql;
+            message.append(String.format("%n  %.1f ms | %s", trace.nanos / 1_000_000.0, sql));
+            if (explain && trace.sqlWithValues != null && isSelect(trace.sql)) {
+                message.append("\n    plan: ").append(explain(trace.sqlWithValues).replace("\n", "\n          "));
+            }
+        }
+        if (call.getStatements() > call.getTraces().size()) {
+            message.append(String.format("%n  ... %d more statements", call.getStatements() - call.getTraces().size()));
+        }
+
+        log.warn(message.toString());
+    }
+
+    String explain(String sql) {
+        try {
+            List<String> plan = jdbcTemplate.queryForList("explain " + sql, String.class);
+            return String.join("\n", plan);
+        } catch (RuntimeException e) {
+            return "explain failed: " + e.getMessage();
+        }
+    }
+
+    private static boolean isSelect(String sql) {
+        String trimmed = sql.trim();
+        return trimmed.regionMatches(true, 0, "select", 0, 6) || trimmed.regionMatches(true, 0, "with", 0, 4);
+    }
+
+    private static String abbreviate(String value) {
+        return value.length() <= MAX_ARGUMENTS_LENGTH ? value : value.substring(0, MAX_ARGUMENTS_LENGTH) + "...";
+    }
+
+
+    private class Meters {
+
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary rows;
+        private final DistributionSummary entities;
+        private final DistributionSummary statements;
+        private final Counter slow;
+
+        Meters(String method) {
+            this.success = timer(method, "success");
+            this.error = timer(method, "error");
+            this.rows = summary("datajpa.repository.rows", method);
+            this.entities = summary("datajpa.repository.entities", method);
+            this.statements = summary("datajpa.repository.statements", method);
+            this.slow = Counter.builder("datajpa.repository.slow")
+                    .tag("method", method)
+                    .register(meterRegistry);
+        }
+
+        private Timer timer(String method, String outcome) {
+            return Timer.builder("datajpa.repository.invocation")
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+        }
+
+        private DistributionSummary summary(String name, String method) {
+            return DistributionSummary.builder(name)
+                    .tag("method", method)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+        }
+
+    }
+
+}
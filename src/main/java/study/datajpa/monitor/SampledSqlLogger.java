@@ -0,0 +1,203 @@
+package study.datajpa.monitor;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+
+import study.datajpa.dto.SqlShapeStatsDto;
+
+/**
+ * p6spy 로그(모든 SQL을 값까지 채워 동기로 출력) 대신 쓰는 SQL 로거
+ *
+ * - 모든 SQL: 모양(prepared SQL 문자열)별 실행 수/시간만 집계. 문자열을 만들지 않는다.
+ * - sampleRate 비율로 뽑힌 SQL과 slowThreshold 이상 걸린 SQL만 바인딩 값을 채운 전체 SQL을 만든다.
+ * - 출력은 크기가 정해진 버퍼에 넣고 별도 스레드가 쓴다. 버퍼가 가득 차면 버리고 dropped만 센다. (요청 스레드는 I/O를 기다리지 않음)
+ *
+ * 로거 이름: study.datajpa.sql (샘플 info, 느린 쿼리 warn)
+ */
+@Component
+public class SampledSqlLogger extends JdbcEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger("study.datajpa.sql");
+
+    // 모양이 너무 많으면(리터럴을 그대로 박은 SQL 등) 더 이상 새 모양을 만들지 않고 여기로 모은다
+    static final String OTHER_SHAPES = "(other)";
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final int maxShapes;
+
+    private final ConcurrentMap<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final BlockingQueue<Entry> buffer;
+    private final LongAdder dropped = new LongAdder();
+    private Thread writer;
+
+    public SampledSqlLogger(@Value("${datajpa.sql-log.enabled:true}") boolean enabled,
+                            @Value("${datajpa.sql-log.sample-rate:0.01}") double sampleRate,
+                            @Value("${datajpa.sql-log.slow-threshold:100ms}") Duration slowThreshold,
+                            @Value("${datajpa.sql-log.buffer-size:1024}") int bufferSize,
+                            @Value("${datajpa.sql-log.max-shapes:1000}") int maxShapes) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.maxShapes = maxShapes;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (!enabled) {
+            return;
+        }
+
+        String sql = statementInformation.getSql();
+        if (sql == null) {
+            return;
+        }
+        shapeStats(sql).record(timeElapsedNanos);
+
+        boolean slow = timeElapsedNanos >= slowThresholdNanos;
+        if (slow || e != null || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            // 바인딩 값은 지금 읽어야 한다. (문장 객체가 다음 실행에 재사용됨)
+            Entry entry = new Entry(statementInformation.getSqlWithValues(), timeElapsedNanos, slow, e);
+            if (!buffer.offer(entry)) {
+                dropped.increment();
+            }
+        }
+    }
+
+    /**
+     * 누적 시간이 큰 순서로 limit개
+     */
+    public List<SqlShapeStatsDto> topShapes(int limit) {
+        return shapes.entrySet().stream()
+                .map(shape -> shape.getValue().toDto(shape.getKey()))
+                .sorted(Comparator.comparingDouble(SqlShapeStatsDto::getTotalMillis).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public void reset() {
+        shapes.clear();
+    }
+
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        writer = new Thread(this::drain, "sql-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (writer != null) {
+            writer.interrupt();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                write(buffer.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 종료 시 남은 것까지 쓴다
+        Entry entry;
+        while ((entry = buffer.poll()) != null) {
+            write(entry);
+        }
+    }
+
+    private static void write(Entry entry) {
+        double millis = entry.elapsedNanos / 1_000_000.0;
+        if (entry.error != null) {
+            log.warn("[error] {} ms | {} | {}", String.format("%.3f", millis), entry.sql, entry.error.getMessage());
+        } else if (entry.slow) {
+            log.warn("[slow] {} ms | {}", String.format("%.3f", millis), entry.sql);
+        } else {
+            log.info("[sampled] {} ms | {}", String.format("%.3f", millis), entry.sql);
+        }
+    }
+
+    private ShapeStats shapeStats(String sql) {
+        ShapeStats stats = shapes.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        if (shapes.size() >= maxShapes) {
+            return shapes.computeIfAbsent(OTHER_SHAPES, key -> new ShapeStats());
+        }
+        return shapes.computeIfAbsent(sql, key -> new ShapeStats());
+    }
+
+
+    private static class ShapeStats {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        SqlShapeStatsDto toDto(String shape) {
+            return new SqlShapeStatsDto(shape, count.sum(),
+                    totalNanos.sum() / (double) TimeUnit.MILLISECONDS.toNanos(1),
+                    maxNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+    }
+
+    private static class Entry {
+
+        private final String sql;
+        private final long elapsedNanos;
+        private final boolean slow;
+        private final SQLException error;
+
+        Entry(String sql, long elapsedNanos, boolean slow, SQLException error) {
+            this.sql = sql;
+            this.elapsedNanos = elapsedNanos;
+            this.slow = slow;
+            this.error = error;
+        }
+
+    }
+
+}
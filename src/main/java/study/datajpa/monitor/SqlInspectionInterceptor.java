@@ -0,0 +1,45 @@
+package study.datajpa.monitor;
+
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 운영용 N+1 감지
+ * 요청마다 SQL을 세고, 같은 모양의 select가 기준 이상 반복된 요청은 호출 위치와 함께 경고 로그를 남긴다.
+ * 스택은 기준을 넘는 순간 한 번만 뜨므로 평소 비용은 카운트 증가 정도다.
+ */
+@Slf4j
+public class SqlInspectionInterceptor implements HandlerInterceptor {
+
+    private final int repeatThreshold;
+
+    public SqlInspectionInterceptor(int repeatThreshold) {
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatementCounter.start(repeatThreshold);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlStats stats = SqlStatementCounter.stop();
+        if (stats == null || stats.getRepeatedSelects().isEmpty()) {
+            return;
+        }
+
+        for (Map.Entry<String, Throwable> repeated : stats.getRepeatedSelects().entrySet()) {
+            log.warn("N+1 의심 {} {} - {}회 반복: {}", request.getMethod(), request.getRequestURI(),
+                    stats.getSelectShapes().get(repeated.getKey()), repeated.getKey(), repeated.getValue());
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+package study.datajpa.monitor;
+
+/**
+ * 스레드별 SQL 실행 수 집계
+ *
+ * start()로 시작한 스레드에서만 센다. 웹 요청은 SqlInspectionInterceptor가 요청마다 시작/종료하고,
+ * 테스트에서는 직접 reset() 후 assertSelectCount()로 검증한다.
+ *
+ * <pre>
+ * SqlStatementCounter.reset();
+ * memberRepository.findMemberFetchJoin().forEach(m -> m.getTeam().getName());
+ * SqlStatementCounter.assertSelectCount(1);
+ * </pre>
+ */
+public final class SqlStatementCounter {
+
+    public static final int DEFAULT_REPEAT_THRESHOLD = 3;
+
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+
+    public static void start(int repeatThreshold) {
+        CURRENT.set(new SqlStats(repeatThreshold));
+    }
+
+    /**
+     * 지금까지 센 것을 버리고 새로 센다.
+     */
+    public static void reset() {
+        start(DEFAULT_REPEAT_THRESHOLD);
+    }
+
+    /**
+     * 집계를 끝내고 결과를 돌려준다. 시작하지 않았으면 null
+     */
+    public static SqlStats stop() {
+        SqlStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    public static SqlStats current() {
+        SqlStats stats = CURRENT.get();
+        if (stats == null) {
+            throw new IllegalStateException("SqlStatementCounter가 시작되지 않았습니다. reset()을 먼저 호출하세요.");
+        }
+        return stats;
+    }
+
+    static void record(String sql) {
+        SqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.record(sql);
+        }
+    }
+
+
+    /* 테스트 검증 */
+
+    public static void assertSelectCount(int expected) {
+        assertCount("select", expected, current().getSelectCount());
+    }
+
+    public static void assertInsertCount(int expected) {
+        assertCount("insert", expected, current().getInsertCount());
+    }
+
+    public static void assertUpdateCount(int expected) {
+        assertCount("update", expected, current().getUpdateCount());
+    }
+
+    public static void assertDeleteCount(int expected) {
+        assertCount("delete", expected, current().getDeleteCount());
+    }
+
+    /**
+     * 같은 모양의 select가 기준 횟수 이상 반복되지 않았는지 (N+1)
+     */
+    public static void assertNoRepeatedSelects() {
+        SqlStats stats = current();
+        if (!stats.getRepeatedSelects().isEmpty()) {
+            throw new AssertionError("반복된 select (N+1 의심): " + stats.getRepeatedSelects().keySet() + "\n" + stats);
+        }
+    }
+
+    private static void assertCount(String type, int expected, int actual) {
+        if (expected != actual) {
+            throw new AssertionError(type + " 실행 수 expected: " + expected + " but was: " + actual + "\n" + current());
+        }
+    }
+
+}
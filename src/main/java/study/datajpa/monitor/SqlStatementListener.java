@@ -0,0 +1,23 @@
+package study.datajpa.monitor;
+
+import java.sql.SQLException;
+
+import org.springframework.stereotype.Component;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+
+/**
+ * p6spy 이벤트 -> SqlStatementCounter
+ * p6spy-spring-boot-starter가 JdbcEventListener 빈을 자동으로 등록한다.
+ * 배치는 executeBatch 한 번을 한 건으로 센다.
+ */
+@Component
+public class SqlStatementListener extends JdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        SqlStatementCounter.record(statementInformation.getSql());
+    }
+
+}
@@ -0,0 +1,125 @@
+package study.datajpa.monitor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 한 작업 단위(요청/테스트)에서 실행된 SQL 통계. 한 스레드에서만 쓴다.
+ * - 종류별(select/insert/update/delete) 실행 수
+ * - 같은 모양(shape)의 select 반복 수. 값만 다른 select가 반복되면 N+1을 의심할 수 있다.
+ */
+public class SqlStats {
+
+    // shape: 리터럴을 ?로 바꾸고 in (?, ?, ...)를 in (?)로 접는다
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private final int repeatThreshold;
+
+    private int selects;
+    private int inserts;
+    private int updates;
+    private int deletes;
+    private int others;
+
+    private final Map<String, Integer> selectShapes = new HashMap<>();
+    private final Map<String, Throwable> repeatedSelects = new LinkedHashMap<>();
+
+    SqlStats(int repeatThreshold) {
+        this.repeatThreshold = repeatThreshold;
+    }
+
+
+    void record(String sql) {
+        if (sql == null) {
+            return;
+        }
+
+        String trimmed = sql.trim();
+        if (startsWith(trimmed, "select") || startsWith(trimmed, "with")) {
+            selects++;
+            recordSelectShape(trimmed);
+        } else if (startsWith(trimmed, "insert")) {
+            inserts++;
+        } else if (startsWith(trimmed, "update")) {
+            updates++;
+        } else if (startsWith(trimmed, "delete")) {
+            deletes++;
+        } else {
+            others++;
+        }
+    }
+
+    private void recordSelectShape(String sql) {
+        String shape = shapeOf(sql);
+        int count = selectShapes.merge(shape, 1, Integer::sum);
+
+        // 기준을 넘는 순간 한 번만 호출 위치를 남긴다. (매번 스택을 뜨지 않게)
+        if (count == repeatThreshold) {
+            repeatedSelects.put(shape, callSite(shape));
+        }
+    }
+
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return IN_LIST.matcher(shape).replaceAll("(?)");
+    }
+
+    private static Throwable callSite(String shape) {
+        Throwable callSite = new Throwable("repeated select: " + shape);
+        callSite.setStackTrace(Arrays.stream(callSite.getStackTrace())
+                .filter(element -> element.getClassName().startsWith("study.datajpa.")
+                        && !element.getClassName().startsWith("study.datajpa.monitor."))
+                .toArray(StackTraceElement[]::new));
+        return callSite;
+    }
+
+    private static boolean startsWith(String sql, String keyword) {
+        return sql.regionMatches(true, 0, keyword, 0, keyword.length());
+    }
+
+
+    public int getSelectCount() {
+        return selects;
+    }
+
+    public int getInsertCount() {
+        return inserts;
+    }
+
+    public int getUpdateCount() {
+        return updates;
+    }
+
+    public int getDeleteCount() {
+        return deletes;
+    }
+
+    public int getTotalCount() {
+        return selects + inserts + updates + deletes + others;
+    }
+
+    /**
+     * 기준 횟수 이상 반복된 select 모양 -> 처음 기준을 넘은 호출 위치
+     */
+    public Map<String, Throwable> getRepeatedSelects() {
+        return Collections.unmodifiableMap(repeatedSelects);
+    }
+
+    public Map<String, Integer> getSelectShapes() {
+        return Collections.unmodifiableMap(selectShapes);
+    }
+
+    @Override
+    public String toString() {
+        return "SqlStats(select=" + selects + ", insert=" + inserts + ", update=" + updates
+                + ", delete=" + deletes + ", other=" + others + ", selectShapes=" + selectShapes + ")";
+    }
+
+}
@@ -0,0 +1,78 @@
+package study.datajpa.monitor;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * SQL 실행 시간 -> datajpa.sql.statement 타이머
+ * 태그: method(리포지토리 메서드), statement(select/insert/update/delete/other), outcome
+ *
+ * 리포지토리 호출별 SQL 수/느린 호출 덤프용 기록(RepositoryMethodContext)도 여기서 한다.
+ *
+ * 커넥션을 얻는 시간은 포함하지 않는다. (hikaricp.connections.acquire)
+ * -> 두 타이머를 비교하면 느린 원인이 풀 대기인지 쿼리인지 알 수 있다.
+ */
+@Component
+public class SqlTimingListener extends JdbcEventListener {
+
+    // DataSource를 꾸밀 때 리스너가 만들어지므로 MeterRegistry는 처음 쓸 때 가져온다
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private volatile MeterRegistry meterRegistry;
+
+    public SqlTimingListener(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        RepositoryMethodContext.statementExecuted(statementInformation, timeElapsedNanos);
+
+        MeterRegistry meterRegistry = this.meterRegistry;
+        if (meterRegistry == null) {
+            meterRegistry = meterRegistryProvider.getIfAvailable();
+            if (meterRegistry == null) {
+                return;
+            }
+            this.meterRegistry = meterRegistry;
+        }
+
+        Timer.builder("datajpa.sql.statement")
+                .tag("method", RepositoryMethodContext.current())
+                .tag("statement", statementType(statementInformation.getSql()))
+                .tag("outcome", e == null ? "success" : "error")
+                .register(meterRegistry)
+                .record(timeElapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    static String statementType(String sql) {
+        if (sql == null) {
+            return "other";
+        }
+        String trimmed = sql.trim();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        String keyword = trimmed.substring(0, end).toLowerCase();
+        switch (keyword) {
+            case "select":
+            case "insert":
+            case "update":
+            case "delete":
+            case "merge":
+                return keyword;
+            default:
+                return "other";
+        }
+    }
+
+}
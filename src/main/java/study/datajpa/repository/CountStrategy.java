@@ -0,0 +1,29 @@
+package study.datajpa.repository;
+
+/**
+ * Page 조회 시 전체 건수(totalElements)를 구하는 방법
+ *
+ * 어떤 전략이든 PageableExecutionUtils 규칙을 따르므로
+ * 첫 페이지 결과가 size보다 작거나 마지막 페이지면 count 쿼리 자체를 생략한다.
+ */
+public enum CountStrategy {
+
+    /** 매번 count 쿼리. 기본 동작과 같다. */
+    EXACT,
+
+    /** 조건(쿼리 + 파라미터)별로 TTL 동안 count 결과를 재사용. TTL만큼 오차가 있을 수 있다. */
+    CACHED,
+
+    /**
+     * DB 통계의 추정치. 조건 없는 전체 count에만 쓸 수 있고,
+     * 조건이 있는 쿼리는 CACHED로 대체된다.
+     */
+    ESTIMATED,
+
+    /**
+     * 별도 커넥션에서 count 쿼리를 content 쿼리와 동시에 실행.
+     * 다른 트랜잭션이므로 현재 트랜잭션에서 아직 커밋하지 않은 변경은 보이지 않는다.
+     */
+    ASYNC
+
+}
@@ -0,0 +1,17 @@
+package study.datajpa.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import study.datajpa.entity.Item;
+import study.datajpa.repository.support.BatchUpserter.UpsertResult;
+
+public interface ItemRepositoryCustom {
+
+    /**
+     * 외부 키를 가진 Item 대량 upsert
+     * save()처럼 건마다 select 하지 않고 batchSize마다 in 절 한 번으로 신규/기존을 판단한다.
+     */
+    @Transactional
+    UpsertResult upsertAll(Iterable<Item> items, int batchSize);
+
+}
@@ -0,0 +1,21 @@
+package study.datajpa.repository;
+
+import javax.persistence.EntityManager;
+
+import lombok.RequiredArgsConstructor;
+import study.datajpa.entity.Item;
+import study.datajpa.repository.support.BatchUpserter;
+import study.datajpa.repository.support.BatchUpserter.UpsertResult;
+
+@RequiredArgsConstructor
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    private final EntityManager em;
+
+
+    @Override
+    public UpsertResult upsertAll(Iterable<Item> items, int batchSize) {
+        return BatchUpserter.upsertAll(em, Item.class, items, batchSize);
+    }
+
+}
@@ -0,0 +1,74 @@
+package study.datajpa.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import study.datajpa.entity.Member;
+
+/**
+ * 키셋(seek) 페이징 커서
+ * - 정렬 키 (username, id)의 마지막 값을 기억해서 다음 페이지는 where 조건으로 찾아간다.
+ * - offset을 쓰지 않으므로 N번째 페이지도 첫 페이지와 비용이 같다.
+ * - 클라이언트에는 Base64로 인코딩한 불투명 토큰으로만 노출한다.
+ * - username이 null인 회원은 맨 앞 (nulls first). 토큰은 "id" 만 (구분자 없음) -> "null" 문자열 username과 구분된다.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class MemberCursor {
+
+    private static final char SEPARATOR = ':';
+
+    private final String username;
+    private final Long id;
+
+    public MemberCursor(String username, Long id) {
+        this.username = username;
+        this.id = id;
+    }
+
+    public static MemberCursor of(Member member) {
+        return new MemberCursor(member.getUsername(), member.getId());
+    }
+
+    // id를 앞에 두면 username에 구분자가 들어 있어도 안전하게 나눌 수 있다.
+    public String encode() {
+        String raw = username == null ? String.valueOf(id) : id + String.valueOf(SEPARATOR) + username;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 빈 토큰이면 첫 페이지(null)
+     * @throws IllegalArgumentException 형식이 잘못된 토큰
+     */
+    public static MemberCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("잘못된 커서 토큰: " + token, e);
+        }
+
+        int idx = raw.indexOf(SEPARATOR);
+        if (idx == 0) {
+            throw new IllegalArgumentException("잘못된 커서 토큰: " + token);
+        }
+
+        try {
+            if (idx < 0) {
+                return new MemberCursor(null, Long.valueOf(raw)); // username이 null
+            }
+            return new MemberCursor(raw.substring(idx + 1), Long.valueOf(raw.substring(0, idx)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("잘못된 커서 토큰: " + token, e);
+        }
+    }
+
+}
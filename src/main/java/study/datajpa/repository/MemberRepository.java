@@ -1,8 +1,8 @@
 package study.datajpa.repository;
 
 
-import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
@@ -17,12 +17,17 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.transaction.annotation.Transactional;
 
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
 
 // 인터페이스이므로 여러 개의 인터페이스 상속 가능
+// 조회 메서드는 readOnly 트랜잭션: FlushMode.MANUAL + 스냅샷 없는 읽기 전용 엔티티. 쓰기 메서드만 @Transactional로 덮어쓴다.
+// (save, delete 등 JpaRepository 메서드는 SimpleJpaRepository의 설정을 따른다)
+@Transactional(readOnly = true)
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, JpaSpecificationExecutor<Member> {
     
     // List<Member> findByUsername(String username);
@@ -37,10 +42,19 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     // (1) "도메인클래스명.메서드이름"으로 NamedQuery를 찾는다
     // (2) 없으면 메서드 이름 쿼리
     // 엔티티 클래스가 복잡해지기 때문에 권장하지는 않지만, 어플리케이션 로딩 시점에 파싱될 때 에러를 찾을 수 있다는 장점이 있다.
+    // 쿼리 캐시: 같은 인자로 반복 조회하면 DB에 가지 않는다. (member-queries 영역)
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = "member-queries")
+    })
     List<Member> findByUsername(@Param("username") String username);
 
 
     // 이름이 없는 NamedQuery 느낌. 애플리케이션 로딩 시점에서 에러 잡을 수 있음.
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = "member-queries")
+    })
     @Query("select m from Member m where m.username = :username and m.age = :age")
     List<Member> findUser(@Param("username") String username,  @Param("age") int age);
 
@@ -54,6 +68,11 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
+    // 비동기 조회: AsyncConfig 실행기 스레드에서 readOnly 트랜잭션으로 실행된다. 없으면 null
+    @Async
+    @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t where m.id = :id")
+    CompletableFuture<MemberDto> findMemberDtoById(@Param("id") Long id);
+
 
     /**
      * 파라미터 바인딩
@@ -64,9 +83,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      *  */ 
 
     
-    // in절
-    @Query("select m from Member m where m.username in :names")
-    List<Member> findByNames(@Param("names") Collection<String> names);
+    // in절: findByNames (MemberRepositoryCustom). 목록이 길면 나눠서 조회한다
 
 
     /*
@@ -96,7 +113,11 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      * @Modifying. 벌크 연산 excuteUpdate() 호출
      * 영속성 컨텍스트를 무시하고 쿼리 날림.
      * JPQL은 쿼리 보내고 flush() 한다.
+     * 2차 캐시: JPQL 벌크 연산은 Member 영역과 Team.members 컬렉션 영역을 Hibernate가 통째로 비운다.
+     * (네이티브 벌크 쿼리는 어떤 테이블을 바꿨는지 모르므로 모든 영역을 비운다)
+     * 대상이 많으면 한 트랜잭션이 락을 오래 잡는다. -> bulkAddAgeInChunks
      */
+    @Transactional
     @Modifying(clearAutomatically = true) // 영속성 컨텍스트 clear
     @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
     int bulkAddAge(@Param("age") int age);
@@ -140,13 +161,14 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     Member findReadOnlyByUsername(String username);
 
     // select for update 기능... optimistic lock 버저닝 메커니즘으로 락...
+    @Transactional
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     List<Member> findLockByUsername(String username);
 
     
     // Projections
     //  List<UsernameOnlyDto> findProjectionsByUsername(@Param("username") String username);
-    <T> List<T> findProjectionsByUsername(@Param("username") String username, Class<T> type);
+    //  <T> List<T> findProjectionsByUsername(String username, Class<T> type) -> MemberRepositoryCustom (ProjectionCompiler)
 
 
     // NativeQuery
@@ -154,7 +176,9 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query(value = "select * from member where username = ?", nativeQuery = true)
     Member findByNativeQuery(String username);
 
-    @Query(value = "select m.member_id as id, m.username, t.name as teamName from member m left join team t",
+    // 조인 조건(on)이 없으면 member x team 카테시안 곱. 기동 시 NativeJoinValidator가 검사한다
+    // 행마다 Tuple 기반 프록시. 많이 읽는 조회는 findMemberDtoSlice (JDBC + ConstructorRowMapper)
+    @Query(value = "select m.member_id as id, m.username, t.name as teamName from member m left join team t on m.team_id = t.team_id",
             countQuery = "select count(*) from member",
             nativeQuery = true)
     Page<MemberProjection> findByNativeProjection(Pageable pageable);
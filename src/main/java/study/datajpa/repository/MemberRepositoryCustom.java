@@ -1,8 +1,22 @@
 package study.datajpa.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.support.ChunkedBulkUpdater;
+import study.datajpa.repository.support.QuerySpec;
 
 public interface MemberRepositoryCustom {
     
@@ -13,5 +27,111 @@ public interface MemberRepositoryCustom {
     */
 
     List<Member> findMemberCustom();
+
+
+    /**
+     * findAll(Specification)과 같은 결과. Criteria 대신 조건 조합별로 캐시한 JPQL 템플릿에 값만 바인딩해서 실행
+     * ex) findAllCompiled(MemberSpec.username("m1").and(MemberSpec.teamName("teamA")))
+     * @see study.datajpa.repository.support.SpecificationCompiler
+     */
+    List<Member> findAllCompiled(QuerySpec<Member> spec);
+
+
+    /**
+     * 동적 프로젝션. type은 Member, 프로젝션 인터페이스, DTO 클래스
+     * 인터페이스는 프록시 대신 생성된 구현 클래스로, 필요한 컬럼만 조회한다. (열린 프로젝션의 단순한 @Value 식 포함)
+     * @see study.datajpa.repository.support.ProjectionCompiler
+     */
+    <T> List<T> findProjectionsByUsername(String username, Class<T> type);
+
+
+    /**
+     * in 조회. 키가 datajpa.in-query.chunk-size개를 넘으면 나눠서 조회하고 합친다. (DB 파라미터 개수 제한)
+     * - 호출 쪽 트랜잭션이 있으면 그 안에서 차례로, 없으면 청크별 readOnly 트랜잭션으로 병렬 실행 (결과 엔티티는 준영속)
+     * - SQL의 파라미터 수는 2의 거듭제곱으로 채워진다. (in_clause_parameter_padding) 목록 길이마다 SQL이 달라지지 않는다
+     * @see study.datajpa.repository.support.InQueryExecutor
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    List<Member> findByNames(Collection<String> names);
+
+    // findAllById의 청크 버전. 순서는 보장하지 않는다
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    List<Member> findAllByIdChunked(Collection<Long> ids);
+
+    // 팀 이름까지 DTO로. 없는 id는 빠진다 (GET /members?ids=)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    List<MemberDto> findMemberDtoByIds(Collection<Long> ids);
+
+
+    /**
+     * 키셋(seek) 페이징. (username, id) 오름차순
+     * - cursor가 null이면 첫 페이지
+     * - size + 1개를 조회해서 다음 페이지 여부만 판단한다. count 쿼리 X
+     */
+    Slice<Member> findMemberSlice(MemberCursor cursor, int size);
+
+    /**
+     * findMemberSlice의 DTO 버전. 네이티브 SQL을 JdbcTemplate으로 실행해서 ConstructorRowMapper로 바로 매핑 (엔티티, Tuple, 프록시 X)
+     * - 호출 쪽 트랜잭션이 쓰기 트랜잭션이면 먼저 flush 한다. (JPA 변경 사항이 SQL에 보이도록)
+     * @see study.datajpa.repository.support.ConstructorRowMapper
+     */
+    Slice<MemberDto> findMemberDtoSlice(MemberCursor cursor, int size);
+
+
+    /**
+     * count 방식을 고를 수 있는 페이징
+     * @see CountStrategy
+     */
+    Page<Member> findAll(Pageable pageable, CountStrategy countStrategy);
+
+    Page<Member> findByAge(int age, Pageable pageable, CountStrategy countStrategy);
+
+    /**
+     * findAll(pageable, countStrategy)의 비동기 버전. DTO로 바꾼 결과를 돌려준다. (트랜잭션 밖에서 엔티티를 만지지 않도록)
+     * AsyncConfig 실행기가 가득 차면 TaskRejectedException
+     * 작업 하나가 커넥션 하나만 쓰도록 CountStrategy.ASYNC는 EXACT로 센다. (이미 요청 스레드와 따로 실행된다)
+     */
+    @Async
+    CompletableFuture<Page<MemberDto>> findAllAsync(Pageable pageable, CountStrategy countStrategy);
+
+    // findByNativeProjection과 같은 결과. (member - team 조인 조건 포함)
+    Page<MemberDto> findMemberDtoPage(Pageable pageable, CountStrategy countStrategy);
+
+
+    /**
+     * 대량 저장
+     * - batchSize 단위로 JDBC 배치 insert 후 flush + clear -> 메모리 사용량이 일정하다.
+     * - clear 하므로 저장한 회원과 기존에 영속 상태였던 엔티티는 모두 준영속이 된다.
+     * @return 저장한 회원 수
+     */
+    @Transactional
+    int saveAllBatched(Iterable<Member> members, int batchSize);
+
+
+    /**
+     * 전체 회원을 DTO 스트림으로 조회 (forward-only 커서, fetchSize 단위로 가져옴)
+     * - DTO 조회라 영속성 컨텍스트에 엔티티가 쌓이지 않아 메모리 사용량이 일정하다.
+     * - 호출하는 쪽에 트랜잭션이 있어야 하고 다 쓰면 반드시 close 해야 한다. (try-with-resources)
+     */
+    Stream<MemberDto> streamMemberDto(int fetchSize);
+
+
+    /**
+     * 회원들의 팀 프록시를 batchSize개씩 in 쿼리로 한 번에 초기화 (N+1 -> N/batchSize + 1)
+     * 전역 default_batch_fetch_size와 다른 크기가 필요한 조회에서 사용
+     */
+    void initializeTeams(Collection<Member> members, int batchSize);
+
+
+    /**
+     * bulkAddAge의 청크 버전. 회원 id 범위로 나눠 청크마다 별도 트랜잭션으로 병렬 실행한다.
+     * - 실패하면 BulkUpdateException.getWatermark()를 resumeFrom으로 넘겨 이어서 실행 (처음이면 Long.MIN_VALUE)
+     * - 호출 쪽 트랜잭션에 참여하지 않는다. (의도한 것. 청크가 각자 REQUIRES_NEW로 커밋하므로 묶을 수 없다)
+     *   호출 쪽 트랜잭션은 끝날 때까지 보류되고, 그 영속성 컨텍스트의 회원은 바뀐 나이를 모른다. 필요하면 다시 조회
+     *   호출 쪽이 이미 update로 락을 잡은 행이 있으면 청크가 그 락을 기다린다. 먼저 커밋하고 호출할 것
+     * @see ChunkedBulkUpdater
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    ChunkedBulkUpdater.Result bulkAddAgeInChunks(int age, long resumeFrom, Consumer<ChunkedBulkUpdater.Progress> progress);
     
 }
@@ -1,17 +1,88 @@
 package study.datajpa.repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.annotations.QueryHints;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
 
 import lombok.RequiredArgsConstructor;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.support.BatchFetcher;
+import study.datajpa.repository.support.ChunkedBulkUpdater;
+import study.datajpa.repository.support.ConstructorRowMapper;
+import study.datajpa.repository.support.InQueryExecutor;
+import study.datajpa.repository.support.NativeJoinValidator;
+import study.datajpa.repository.support.PageCounter;
+import study.datajpa.repository.support.PageCounter.CountQuery;
+import study.datajpa.repository.support.ProjectionCompiler;
+import study.datajpa.repository.support.QuerySpec;
+import study.datajpa.repository.support.SpecificationCompiler;
 
 // MemberRepository(원 리포지토리 이름) + "Impl"이라고 이름해야 한다.
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
     
+    private static final Sort KEYSET_SORT = Sort.by("username", "id");
+
+    private static final ConstructorRowMapper<MemberDto> MEMBER_DTO_MAPPER =
+            ConstructorRowMapper.of(MemberDto.class, Long.class, String.class, String.class);
+
+    // findMemberSlice와 같은 키셋 조건 (idx_member_username 범위 검색)
+    private static final String MEMBER_DTO_FIRST_PAGE = NativeJoinValidator.requireJoinConditions(
+            "select m.member_id, m.username, t.name from member m left join team t on m.team_id = t.team_id"
+            + " order by m.username nulls first, m.member_id limit ?");
+    private static final String MEMBER_DTO_NEXT_PAGE = NativeJoinValidator.requireJoinConditions(
+            "select m.member_id, m.username, t.name from member m left join team t on m.team_id = t.team_id"
+            + " where m.username >= ? and (m.username > ? or m.member_id > ?)"
+            + " order by m.username nulls first, m.member_id limit ?");
+    private static final String MEMBER_DTO_NEXT_PAGE_AFTER_NULL = NativeJoinValidator.requireJoinConditions(
+            "select m.member_id, m.username, t.name from member m left join team t on m.team_id = t.team_id"
+            + " where (m.username is null and m.member_id > ?) or m.username is not null"
+            + " order by m.username nulls first, m.member_id limit ?");
+
+    // H2 기준. 통계의 추정치라 정확하지 않다. (PostgreSQL이면 pg_class.reltuples)
+    private static final String ESTIMATE_MEMBER_COUNT =
+            "select row_count_estimate from information_schema.tables"
+            + " where table_schema = schema() and table_name = 'MEMBER'";
+
     private final EntityManager em;
+    private final PageCounter pageCounter;
+    private final ChunkedBulkUpdater bulkUpdater;
+    private final SpecificationCompiler specificationCompiler;
+    private final InQueryExecutor inQueryExecutor;
+    private final ProjectionCompiler projectionCompiler;
+    private final JdbcTemplate jdbcTemplate;
+
+
+    // 이 리포지토리가 쓰는 프로젝션 클래스는 기동할 때 만들어 둔다
+    @PostConstruct
+    public void precompileProjections() {
+        projectionCompiler.precompile(Member.class, UsernameOnly.class, UsernameOnlyDto.class, NestedClosedProjections.class);
+    }
 
 
     @Override
@@ -20,5 +91,217 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                 .getResultList();
     }
 
+    @Override
+    public List<Member> findByNames(Collection<String> names) {
+        return inQueryExecutor.execute(names, chunk ->
+                em.createQuery("select m from Member m where m.username in :names", Member.class)
+                        .setParameter("names", chunk)
+                        .setHint(QueryHints.CACHEABLE, true)
+                        .setHint(QueryHints.CACHE_REGION, "member-queries")
+                        .getResultList());
+    }
+
+    @Override
+    public List<Member> findAllByIdChunked(Collection<Long> ids) {
+        return inQueryExecutor.execute(ids, chunk ->
+                em.createQuery("select m from Member m where m.id in :ids", Member.class)
+                        .setParameter("ids", chunk)
+                        .getResultList());
+    }
+
+    @Override
+    public List<MemberDto> findMemberDtoByIds(Collection<Long> ids) {
+        return inQueryExecutor.execute(ids, chunk ->
+                em.createQuery("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)"
+                                + " from Member m left join m.team t where m.id in :ids", MemberDto.class)
+                        .setParameter("ids", chunk)
+                        .getResultList());
+    }
+
+    @Override
+    public List<Member> findAllCompiled(QuerySpec<Member> spec) {
+        return specificationCompiler.createQuery(em, Member.class, spec)
+                .getResultList();
+    }
+
+    @Override
+    public <T> List<T> findProjectionsByUsername(String username, Class<T> type) {
+        return projectionCompiler.list(em, Member.class, type, "e.username = :username", Collections.singletonMap("username", username));
+    }
+
+
+    @Override
+    public Slice<Member> findMemberSlice(MemberCursor cursor, int size) {
+        TypedQuery<Member> query;
+        // username이 null인 회원은 맨 앞 (nulls first). 빠뜨리지 않도록 null 커서는 따로 이어간다
+        if (cursor == null) {
+            query = em.createQuery("select m from Member m order by m.username asc nulls first, m.id asc", Member.class);
+        } else if (cursor.getUsername() == null) {
+            query = em.createQuery("select m from Member m"
+                    + " where (m.username is null and m.id > :id) or m.username is not null"
+                    + " order by m.username asc nulls first, m.id asc", Member.class)
+                    .setParameter("id", cursor.getId());
+        } else {
+            // (username, id) > (:username, :id) 를 풀어서 쓴 것
+            // username >= 를 따로 두어야 idx_member_username (username, member_id) 범위 검색이 된다. (or만 있으면 전체 스캔)
+            query = em.createQuery("select m from Member m"
+                    + " where m.username >= :username and (m.username > :username or m.id > :id)"
+                    + " order by m.username asc nulls first, m.id asc", Member.class)
+                    .setParameter("username", cursor.getUsername())
+                    .setParameter("id", cursor.getId());
+        }
+
+        List<Member> content = query
+                .setMaxResults(size + 1) // 하나 더 가져와서 다음 페이지 여부 판단
+                .getResultList();
+
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, size));
+        }
+
+        return new SliceImpl<>(content, PageRequest.of(0, size, KEYSET_SORT), hasNext);
+    }
+
+
+    @Override
+    public Slice<MemberDto> findMemberDtoSlice(MemberCursor cursor, int size) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            em.flush();
+        }
+
+        List<MemberDto> content;
+        if (cursor == null) {
+            content = jdbcTemplate.query(MEMBER_DTO_FIRST_PAGE, MEMBER_DTO_MAPPER, size + 1);
+        } else if (cursor.getUsername() == null) {
+            content = jdbcTemplate.query(MEMBER_DTO_NEXT_PAGE_AFTER_NULL, MEMBER_DTO_MAPPER, cursor.getId(), size + 1);
+        } else {
+            content = jdbcTemplate.query(MEMBER_DTO_NEXT_PAGE, MEMBER_DTO_MAPPER,
+                    cursor.getUsername(), cursor.getUsername(), cursor.getId(), size + 1);
+        }
+
+        boolean hasNext = content.size() > size;
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, size));
+        }
+        return new SliceImpl<>(content, PageRequest.of(0, size, KEYSET_SORT), hasNext);
+    }
+
+
+    @Override
+    public Page<Member> findAll(Pageable pageable, CountStrategy countStrategy) {
+        CountQuery countQuery = CountQuery.of("Member.findAll", MemberRepositoryImpl::countAll)
+                .withEstimate(MemberRepositoryImpl::estimateAll);
+
+        return pageCounter.getPage(countStrategy, countQuery, pageable, () ->
+                paged(em.createQuery(QueryUtils.applySorting("select m from Member m", pageable.getSort(), "m"), Member.class), pageable));
+    }
+
+    @Override
+    public CompletableFuture<Page<MemberDto>> findAllAsync(Pageable pageable, CountStrategy countStrategy) {
+        // ASYNC count는 커넥션을 하나 더 잡는다. 실행기 동시 실행 수가 커넥션 풀 크기라 풀이 바닥나므로 같은 커넥션에서 이어서 센다.
+        CountStrategy strategy = countStrategy == CountStrategy.ASYNC ? CountStrategy.EXACT : countStrategy;
+        return CompletableFuture.completedFuture(findAll(pageable, strategy).map(MemberDto::new));
+    }
+
+    @Override
+    public Page<Member> findByAge(int age, Pageable pageable, CountStrategy countStrategy) {
+        CountQuery countQuery = CountQuery.of("Member.findByAge:" + age, entityManager ->
+                entityManager.createQuery("select count(m) from Member m where m.age = :age", Long.class)
+                        .setParameter("age", age)
+                        .getSingleResult());
+
+        return pageCounter.getPage(countStrategy, countQuery, pageable, () ->
+                paged(em.createQuery(QueryUtils.applySorting("select m from Member m where m.age = :age", pageable.getSort(), "m"), Member.class)
+                        .setParameter("age", age), pageable));
+    }
+
+    @Override
+    public Page<MemberDto> findMemberDtoPage(Pageable pageable, CountStrategy countStrategy) {
+        CountQuery countQuery = CountQuery.of("Member.findMemberDtoPage", MemberRepositoryImpl::countAll)
+                .withEstimate(MemberRepositoryImpl::estimateAll);
+
+        String query = "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t";
+        return pageCounter.getPage(countStrategy, countQuery, pageable, () ->
+                paged(em.createQuery(QueryUtils.applySorting(query, pageable.getSort(), "m"), MemberDto.class), pageable));
+    }
+
+
+    @Override
+    public int saveAllBatched(Iterable<Member> members, int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than 0");
+
+        // 이전 변경 사항은 clear 전에 먼저 반영
+        em.flush();
+
+        // 이 세션에서만 JDBC 배치 크기를 batchSize로 맞춘다
+        Session session = em.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+
+        int count = 0;
+        try {
+            for (Member member : members) {
+                em.persist(member);
+
+                if (++count % batchSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            em.flush();
+            em.clear();
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+
+        return count;
+    }
+
+
+    @Override
+    public Stream<MemberDto> streamMemberDto(int fetchSize) {
+        return em.createQuery("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name)"
+                        + " from Member m left join m.team t order by m.id", MemberDto.class)
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .setHint(QueryHints.CACHE_MODE, CacheMode.IGNORE)
+                .getResultStream(); // Hibernate: ScrollableResults(FORWARD_ONLY)
+    }
+
+
+    @Override
+    public void initializeTeams(Collection<Member> members, int batchSize) {
+        BatchFetcher.initializeTeams(em, members, batchSize);
+    }
+
+
+    @Override
+    public ChunkedBulkUpdater.Result bulkAddAgeInChunks(int age, long resumeFrom, Consumer<ChunkedBulkUpdater.Progress> progress) {
+        ChunkedBulkUpdater.Job job = ChunkedBulkUpdater.Job.of(Member.class, "e.age = e.age + 1")
+                .where("e.age >= :age", Map.of("age", age))
+                .resumeFrom(resumeFrom);
+        return bulkUpdater.execute(job, progress);
+    }
+
+
+    private static <T> List<T> paged(TypedQuery<T> query, Pageable pageable) {
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query.getResultList();
+    }
+
+    private static Long countAll(EntityManager entityManager) {
+        return entityManager.createQuery("select count(m) from Member m", Long.class).getSingleResult();
+    }
+
+    private static Long estimateAll(EntityManager entityManager) {
+        Number estimate = (Number) entityManager.createNativeQuery(ESTIMATE_MEMBER_COUNT).getSingleResult();
+        return estimate.longValue();
+    }
+
     
 }
@@ -1,36 +1,36 @@
 package study.datajpa.repository;
 
-import javax.persistence.criteria.CriteriaBuilder;
-import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Join;
 import javax.persistence.criteria.JoinType;
-import javax.persistence.criteria.Predicate;
-import javax.persistence.criteria.Root;
 
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.repository.support.QuerySpec;
 
+// findAll(Specification)에도, 컴파일된 쿼리(findAllCompiled)에도 쓸 수 있다. (QuerySpec)
+// 조합은 QuerySpec.and로. (Specification.and로 묶으면 구조 정보가 없어져 Criteria로만 실행된다)
 public class MemberSpec {
     
-    public static Specification<Member> teamName(final String teamName) {
-        return (Specification<Member>) (root, query, builder) -> {
-
-                if(StringUtils.isEmpty(teamName)) {
-                    return null;
-                }
-
-                Join<Member, Team> t = root.join("team", JoinType.INNER);
-                return builder.equal(t.get("name"), teamName);
+    public static QuerySpec<Member> teamName(final String teamName) {
+        return QuerySpec.where("teamName", "join e.team t", "t.name = {}",
+                StringUtils.hasLength(teamName) ? teamName : null,
+                (root, query, builder) -> {
+                    Join<Member, Team> t = root.join("team", JoinType.INNER);
+                    return builder.equal(t.get("name"), teamName);
+                });
+    }
 
-        };
+    // null이면 username = null 조건 그대로 (빈 teamName처럼 빠지지 않는다)
+    public static QuerySpec<Member> username(final String username) {
+        return QuerySpec.whereNullable("username", null, "e.username = {}", username,
+                (root, query, builder) -> builder.equal(root.get("username"), username));
     }
 
-    public static Specification<Member> username(final String username) {
-        return (Specification<Member>) (root, query, builder) ->
-                builder.equal(root.get("username"), username);
+    public static QuerySpec<Member> ageGreaterThanOrEqual(final Integer age) {
+        return QuerySpec.where("ageGoe", null, "e.age >= {}", age,
+                (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("age"), age));
     }
 
 }
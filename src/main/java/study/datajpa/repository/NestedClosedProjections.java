@@ -3,7 +3,8 @@ package study.datajpa.repository;
 public interface NestedClosedProjections {
     
     String getUsername(); // member.username만 들고옴.
-    TeamInfo getTeam(); // 최적화가 안 됨. 엔티티 전체를 불러옴. LEFT OUTER JOIN.
+    TeamInfo getTeam(); // Spring Data는 최적화가 안 됨. 엔티티 전체를 불러옴. LEFT OUTER JOIN.
+                        // findProjectionsByUsername(ProjectionCompiler)은 팀 id, name만 select 해서 TeamInfo 구현 클래스로
 
     interface TeamInfo {
         String getName();
@@ -0,0 +1,15 @@
+package study.datajpa.repository;
+
+import java.util.Collection;
+
+import study.datajpa.entity.Team;
+
+public interface TeamRepositoryCustom {
+
+    /**
+     * 팀들의 members 컬렉션을 batchSize개 팀씩 한 번에 초기화
+     * 전역 default_batch_fetch_size와 다른 크기가 필요한 조회에서 사용
+     */
+    void initializeMembers(Collection<Team> teams, int batchSize);
+
+}
@@ -0,0 +1,22 @@
+package study.datajpa.repository;
+
+import java.util.Collection;
+
+import javax.persistence.EntityManager;
+
+import lombok.RequiredArgsConstructor;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.support.BatchFetcher;
+
+@RequiredArgsConstructor
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private final EntityManager em;
+
+
+    @Override
+    public void initializeMembers(Collection<Team> teams, int batchSize) {
+        BatchFetcher.initializeMembers(em, teams, batchSize);
+    }
+
+}
@@ -0,0 +1,85 @@
+package study.datajpa.repository.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Hibernate;
+import org.springframework.util.Assert;
+
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+/**
+ * 호출 단위로 배치 크기를 정해서 지연 로딩 연관관계를 in 쿼리로 한 번에 초기화한다.
+ * 전역 설정(hibernate.default_batch_fetch_size)과 상관없이 쓸 수 있다.
+ *
+ * - Member.team: 아직 초기화되지 않은 팀 프록시의 id를 모아 in 조회 -> 같은 영속성 컨텍스트의 프록시가 그대로 초기화됨
+ * - Team.members: 이미 영속 상태인 팀을 fetch join으로 다시 조회 -> 컬렉션이 초기화됨
+ */
+public final class BatchFetcher {
+
+    private BatchFetcher() {
+    }
+
+    /**
+     * @return 실행한 쿼리 수
+     */
+    public static int initializeTeams(EntityManager em, Collection<Member> members, int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than 0");
+
+        Set<Long> teamIds = new LinkedHashSet<>();
+        for (Member member : members) {
+            Team team = member.getTeam();
+            if (team != null && !Hibernate.isInitialized(team)) {
+                teamIds.add(team.getId()); // 프록시의 id 조회는 초기화하지 않는다
+            }
+        }
+
+        int queries = 0;
+        for (List<Long> chunk : chunks(new ArrayList<>(teamIds), batchSize)) {
+            em.createQuery("select t from Team t where t.id in :ids", Team.class)
+                    .setParameter("ids", chunk)
+                    .getResultList();
+            queries++;
+        }
+        return queries;
+    }
+
+    /**
+     * @param teams 영속 상태인 팀
+     * @return 실행한 쿼리 수
+     */
+    public static int initializeMembers(EntityManager em, Collection<Team> teams, int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than 0");
+
+        List<Long> teamIds = new ArrayList<>();
+        for (Team team : teams) {
+            if (!Hibernate.isInitialized(team.getMembers())) {
+                teamIds.add(team.getId());
+            }
+        }
+
+        int queries = 0;
+        for (List<Long> chunk : chunks(teamIds, batchSize)) {
+            em.createQuery("select distinct t from Team t left join fetch t.members where t.id in :ids", Team.class)
+                    .setParameter("ids", chunk)
+                    .getResultList();
+            queries++;
+        }
+        return queries;
+    }
+
+    private static <T> List<List<T>> chunks(List<T> list, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += size) {
+            chunks.add(list.subList(i, Math.min(i + size, list.size())));
+        }
+        return chunks;
+    }
+
+}
@@ -0,0 +1,103 @@
+package study.datajpa.repository.support;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.EntityType;
+
+import org.hibernate.Session;
+import org.springframework.data.domain.Persistable;
+import org.springframework.util.Assert;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * id를 직접 할당하는 엔티티의 대량 upsert
+ *
+ * save()는 isNew()가 false면 merge -> 건마다 select가 나간다.
+ * 여기서는 batchSize마다 id를 in 절로 한 번에 조회해서 신규/기존을 나누고
+ * - 신규: persist (JDBC 배치 insert)
+ * - 기존: 이미 영속 상태인 엔티티에 merge (추가 select 없음, 변경분은 JDBC 배치 update)
+ * 배치마다 flush + clear 하므로 처리 후 엔티티는 준영속 상태다.
+ */
+public final class BatchUpserter {
+
+    private BatchUpserter() {
+    }
+
+    public static <T extends Persistable<ID>, ID> UpsertResult upsertAll(EntityManager em, Class<T> type, Iterable<T> entities, int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than 0");
+
+        EntityType<T> entityType = em.getMetamodel().entity(type);
+        String idAttribute = entityType.getId(entityType.getIdType().getJavaType()).getName();
+        String existingQuery = "select e from " + entityType.getName() + " e where e." + idAttribute + " in :ids";
+
+        em.flush();
+
+        Session session = em.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+
+        UpsertResult result = new UpsertResult();
+        List<T> batch = new ArrayList<>(batchSize);
+        try {
+            for (T entity : entities) {
+                batch.add(entity);
+                if (batch.size() == batchSize) {
+                    upsertBatch(em, type, existingQuery, batch, result);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                upsertBatch(em, type, existingQuery, batch, result);
+            }
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+
+        return result;
+    }
+
+    private static <T extends Persistable<ID>, ID> void upsertBatch(EntityManager em, Class<T> type, String existingQuery,
+                                                                   List<T> batch, UpsertResult result) {
+        List<ID> ids = new ArrayList<>(batch.size());
+        for (T entity : batch) {
+            ids.add(entity.getId());
+        }
+
+        // 기존 row는 이 조회로 영속성 컨텍스트에 올라온다 -> 이후 merge는 select 없이 처리
+        Map<Object, T> managed = new HashMap<>();
+        for (T existing : em.createQuery(existingQuery, type).setParameter("ids", ids).getResultList()) {
+            managed.put(existing.getId(), existing);
+        }
+
+        for (T entity : batch) {
+            if (managed.containsKey(entity.getId())) {
+                em.merge(entity);
+                result.updated++;
+            } else {
+                em.persist(entity);
+                managed.put(entity.getId(), entity); // 같은 배치에 같은 id가 또 오면 merge
+                result.inserted++;
+            }
+        }
+
+        em.flush();
+        em.clear();
+    }
+
+
+    @Getter
+    @ToString
+    public static class UpsertResult {
+
+        private int inserted;
+        private int updated;
+
+    }
+
+}
@@ -0,0 +1,375 @@
+package study.datajpa.repository.support;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.metamodel.EntityType;
+
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import lombok.Getter;
+
+/**
+ * 벌크 update를 id 범위 청크로 나눠 실행한다.
+ *
+ * - 청크 경계는 실제 있는 id에서 잡는다. (id >= :from order by id 에서 chunkSize번째 id, keyset)
+ *   id가 듬성듬성해도 빈 청크가 생기지 않고, 경계는 청크를 실행하면서 하나씩 구한다.
+ * - 청크마다 별도 트랜잭션(REQUIRES_NEW) -> 락을 짧게 잡고 undo/redo도 청크 크기만큼만 쌓인다.
+ * - 청크는 threads개까지 병렬. 큐가 가득 차면 호출 스레드에서 실행한다.
+ * - 청크는 각자 커밋된다. 중간에 실패하면 BulkUpdateException.getWatermark()부터 다시 실행 (Job.resumeFrom)
+ * - 호출 쪽 영속성 컨텍스트는 clear 하지 않고, 바뀐 엔티티만 evict 한다. (다음 조회에서 다시 읽는다)
+ *
+ * 청크는 호출 쪽과 다른 커넥션에서 실행된다.
+ * 호출 쪽 read-write 트랜잭션이 수정한(락을 잡은) 행이 있으면 청크는 그 락을, 호출 쪽은 청크를 기다려
+ * 락 타임아웃까지 멈춘다. 그래서 read-write 트랜잭션 안에서 호출하면 IllegalStateException (커밋하고 호출하거나 readOnly 트랜잭션에서)
+ * 2차 캐시는 Hibernate가 청크 update마다 해당 엔티티 영역을 비운다. (JPQL 벌크 연산과 같음)
+ */
+@Component
+public class ChunkedBulkUpdater {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final EntityManagerFactory emf;
+    private final TransactionTemplate chunkTransaction;
+    private final int defaultChunkSize;
+    private final ThreadPoolExecutor executor;
+
+    public ChunkedBulkUpdater(EntityManagerFactory emf, PlatformTransactionManager transactionManager,
+                              @Value("${datajpa.bulk.chunk-size:1000}") int defaultChunkSize,
+                              @Value("${datajpa.bulk.threads:4}") int threads) {
+        this.emf = emf;
+        this.defaultChunkSize = defaultChunkSize;
+
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("bulk-update-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 2), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+
+    /**
+     * @param progress 청크가 끝날 때마다 호출된다. (청크 실행 스레드에서, 동시에 호출되지는 않음)
+     */
+    public Result execute(Job job, Consumer<Progress> progress) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            throw new IllegalStateException("chunked bulk update must not run inside a read-write transaction:"
+                    + " chunks run on other connections and would wait for its row locks (commit first or use a read-only transaction)");
+        }
+
+        EntityType<?> entityType = emf.getMetamodel().entity(job.entityClass);
+        String idName = entityType.getId(Long.class).getName();
+        String entityName = entityType.getName();
+        int chunkSize = job.chunkSize > 0 ? job.chunkSize : defaultChunkSize;
+
+        Map<Long, Object> managed = managedEntities(job.entityClass);
+        Set<Long> affectedManaged = ConcurrentHashMap.newKeySet();
+
+        String update = "update " + entityName + " e set " + job.set + " where " + range(idName) + condition(job);
+        String selectManaged = "select e." + idName + " from " + entityName + " e where " + range(idName) + condition(job)
+                + " and e." + idName + " in :managed";
+        String nextBoundary = "select e." + idName + " from " + entityName + " e"
+                + " where e." + idName + " >= :from" + condition(job) + " order by e." + idName;
+        String lastId = "select max(e." + idName + ") from " + entityName + " e"
+                + " where e." + idName + " >= :from" + condition(job);
+
+        Watermark watermark = new Watermark(job.resumeFrom, progress);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        // 청크 i가 바꾸는 행은 [lo, hi) 안에만 있으므로, 실행 중에 다음 경계(>= hi)를 구해도 결과가 같다.
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        long lo = job.resumeFrom;
+        while (failure.get() == null) {
+            Long hi = upperBound(job, nextBoundary, lastId, lo, chunkSize);
+            if (hi == null) {
+                break;
+            }
+            long from = lo;
+            Watermark.Chunk chunk = watermark.submitted(hi);
+            List<Long> managedInRange = inRange(managed.keySet(), from, hi);
+
+            futures.add(CompletableFuture.runAsync(() -> {
+                if (failure.get() != null) {
+                    return; // 앞선 청크가 실패하면 남은 청크는 실행하지 않는다
+                }
+                try {
+                    int updated = chunkTransaction.execute(status -> {
+                        if (!managedInRange.isEmpty()) {
+                            affectedManaged.addAll(bind(em.createQuery(selectManaged, Long.class), job, from, hi)
+                                    .setParameter("managed", managedInRange)
+                                    .getResultList());
+                        }
+                        return bind(em.createQuery(update), job, from, hi).executeUpdate();
+                    });
+                    watermark.completed(chunk, updated);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }, executor));
+            lo = hi;
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        // 커밋된 청크에서 바뀐 엔티티만 영속성 컨텍스트에서 뺀다.
+        // 호출 쪽은 readOnly 트랜잭션이거나 트랜잭션이 없으므로 버려지는 변경은 없다.
+        affectedManaged.forEach(id -> em.detach(managed.get(id)));
+
+        if (failure.get() != null) {
+            throw new BulkUpdateException(watermark.value(), watermark.updated(), failure.get());
+        }
+        return new Result(watermark.updated(), futures.size(), watermark.value());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+
+    /**
+     * @return from부터 chunkSize개를 담는 청크의 끝(exclusive). 남은 행이 없으면 null
+     */
+    private Long upperBound(Job job, String nextBoundary, String lastId, long from, int chunkSize) {
+        return chunkTransaction.execute(status -> {
+            List<?> next = bind(em.createQuery(nextBoundary), job, from)
+                    .setFirstResult(chunkSize)
+                    .setMaxResults(1)
+                    .getResultList();
+            if (!next.isEmpty()) {
+                return ((Number) next.get(0)).longValue();
+            }
+            Object last = bind(em.createQuery(lastId), job, from).getSingleResult(); // 마지막 청크
+            return last == null ? null : ((Number) last).longValue() + 1;
+        });
+    }
+
+    private Map<Long, Object> managedEntities(Class<?> entityClass) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Collections.emptyMap();
+        }
+
+        Map<Long, Object> managed = new HashMap<>();
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContext().reentrantSafeEntityEntries()) {
+            if (entityClass.isInstance(entry.getKey())) {
+                managed.put((Long) entry.getValue().getId(), entry.getKey());
+            }
+        }
+        return managed;
+    }
+
+    private static List<Long> inRange(Set<Long> ids, long lo, long hi) {
+        List<Long> result = new ArrayList<>();
+        for (Long id : ids) {
+            if (id >= lo && id < hi) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private static String range(String idName) {
+        return "e." + idName + " >= :lo and e." + idName + " < :hi";
+    }
+
+    private static String condition(Job job) {
+        return job.where == null ? "" : " and (" + job.where + ")";
+    }
+
+    private static Query bind(Query query, Job job, long from) {
+        query.setParameter("from", from);
+        job.params.forEach(query::setParameter);
+        return query;
+    }
+
+    private static <Q extends Query> Q bind(Q query, Job job, long lo, long hi) {
+        query.setParameter("lo", lo);
+        query.setParameter("hi", hi);
+        job.params.forEach(query::setParameter);
+        return query;
+    }
+
+
+    /**
+     * 벌크 update 정의. 엔티티 별칭은 e
+     * ex) Job.of(Member.class, "e.age = e.age + 1").where("e.age >= :age", Map.of("age", 20))
+     */
+    public static class Job {
+
+        private final Class<?> entityClass;
+        private final String set;
+        private final String where;
+        private final Map<String, Object> params;
+        private final int chunkSize;
+        private final long resumeFrom;
+
+        private Job(Class<?> entityClass, String set, String where, Map<String, Object> params, int chunkSize, long resumeFrom) {
+            this.entityClass = entityClass;
+            this.set = set;
+            this.where = where;
+            this.params = params;
+            this.chunkSize = chunkSize;
+            this.resumeFrom = resumeFrom;
+        }
+
+        public static Job of(Class<?> entityClass, String set) {
+            return new Job(entityClass, set, null, Collections.emptyMap(), 0, Long.MIN_VALUE);
+        }
+
+        public Job where(String where, Map<String, Object> params) {
+            return new Job(entityClass, set, where, params, chunkSize, resumeFrom);
+        }
+
+        /** 청크당 행 수. 지정하지 않으면 datajpa.bulk.chunk-size */
+        public Job chunkSize(int chunkSize) {
+            Assert.isTrue(chunkSize > 0, "chunkSize must be greater than 0");
+            return new Job(entityClass, set, where, params, chunkSize, resumeFrom);
+        }
+
+        /** 이 id부터 실행. 실패한 작업의 watermark를 넘기면 이어서 실행된다. */
+        public Job resumeFrom(long id) {
+            return new Job(entityClass, set, where, params, chunkSize, id);
+        }
+
+    }
+
+    @Getter
+    public static class Progress {
+
+        // 청크 경계는 실행하면서 구하므로 전체 청크 수는 끝나야 안다. (Result.getChunks)
+        private final long completedChunks;
+        private final long updatedRows;
+        /** 이 id 미만은 모두 커밋됨 */
+        private final long watermark;
+
+        Progress(long completedChunks, long updatedRows, long watermark) {
+            this.completedChunks = completedChunks;
+            this.updatedRows = updatedRows;
+            this.watermark = watermark;
+        }
+
+    }
+
+    @Getter
+    public static class Result {
+
+        private final long updatedRows;
+        private final long chunks;
+        private final long watermark;
+
+        Result(long updatedRows, long chunks, long watermark) {
+            this.updatedRows = updatedRows;
+            this.chunks = chunks;
+            this.watermark = watermark;
+        }
+
+    }
+
+    /**
+     * 일부 청크가 실패. watermark 미만은 커밋되어 있으므로 resumeFrom(watermark)로 다시 실행한다.
+     * (watermark 이상이라도 먼저 끝난 청크는 커밋되어 있을 수 있다. 멱등하지 않은 update는 주의)
+     */
+    @Getter
+    public static class BulkUpdateException extends RuntimeException {
+
+        private final long watermark;
+        private final long updatedRows;
+
+        BulkUpdateException(long watermark, long updatedRows, RuntimeException cause) {
+            super("bulk update failed. resume from id " + watermark, cause);
+            this.watermark = watermark;
+            this.updatedRows = updatedRows;
+        }
+
+    }
+
+    /**
+     * 완료된 청크를 모아 연속으로 끝난 구간의 끝(watermark)을 구한다. 청크는 순서 없이 끝난다.
+     * 아직 안 끝난 청크 중 가장 앞의 것부터만 들고 있다. (실행 중인 청크 수만큼)
+     */
+    private static class Watermark {
+
+        private final Consumer<Progress> listener;
+        private final Deque<Chunk> pending = new ArrayDeque<>();
+        private final AtomicLong updated = new AtomicLong();
+        private long value;
+        private long completed;
+
+        Watermark(long from, Consumer<Progress> listener) {
+            this.value = from;
+            this.listener = listener;
+        }
+
+        synchronized Chunk submitted(long hi) {
+            Chunk chunk = new Chunk(hi);
+            pending.addLast(chunk);
+            return chunk;
+        }
+
+        synchronized void completed(Chunk chunk, int rows) {
+            chunk.done = true;
+            while (!pending.isEmpty() && pending.peekFirst().done) {
+                value = pending.pollFirst().hi;
+            }
+            completed++;
+            long total = updated.addAndGet(rows);
+            if (listener != null) {
+                listener.accept(new Progress(completed, total, value));
+            }
+        }
+
+        synchronized long value() {
+            return value;
+        }
+
+        long updated() {
+            return updated.get();
+        }
+
+        private static class Chunk {
+
+            private final long hi;
+            private boolean done;
+
+            Chunk(long hi) {
+                this.hi = hi;
+            }
+
+        }
+
+    }
+
+}
@@ -0,0 +1,106 @@
+package study.datajpa.repository.support;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * 네이티브 조회 결과를 DTO 생성자로 바로 매핑하는 RowMapper. 컬럼은 생성자 파라미터 순서대로 (이름 X)
+ *
+ * 생성자와 컬럼별 읽기 방법은 만들 때 한 번만 정한다. 행마다 리플렉션, Tuple, 프록시가 없다.
+ * 스레드 안전. 상수로 두고 재사용한다.
+ *
+ * ex) ConstructorRowMapper.of(MemberDto.class, Long.class, String.class, String.class)
+ *     "select m.member_id, m.username, t.name from ..."
+ */
+public final class ConstructorRowMapper<T> implements RowMapper<T> {
+
+    private final Class<T> type;
+    private final ColumnReader[] readers;
+    private final MethodHandle constructor;
+
+    private ConstructorRowMapper(Class<T> type, ColumnReader[] readers, MethodHandle constructor) {
+        this.type = type;
+        this.readers = readers;
+        this.constructor = constructor;
+    }
+
+    public static <T> ConstructorRowMapper<T> of(Class<T> type, Class<?>... parameterTypes) {
+        MethodHandle constructor;
+        try {
+            constructor = MethodHandles.publicLookup()
+                    .findConstructor(type, MethodType.methodType(void.class, parameterTypes))
+                    .asSpreader(Object[].class, parameterTypes.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("no public constructor " + type.getName() + MethodType.methodType(void.class, parameterTypes), e);
+        }
+
+        ColumnReader[] readers = new ColumnReader[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            readers[i] = reader(parameterTypes[i]);
+        }
+        return new ConstructorRowMapper<>(type, readers, constructor);
+    }
+
+    @Override
+    public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+        if (rowNum == 0 && rs.getMetaData().getColumnCount() != readers.length) {
+            throw new InvalidDataAccessApiUsageException(String.format("%s needs %d columns but query returned %d",
+                    type.getSimpleName(), readers.length, rs.getMetaData().getColumnCount()));
+        }
+
+        Object[] values = new Object[readers.length];
+        for (int i = 0; i < readers.length; i++) {
+            values[i] = readers[i].read(rs, i + 1);
+        }
+        try {
+            return type.cast((Object) constructor.invokeExact(values));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+
+    // 박싱 타입은 SQL NULL -> null, primitive는 JDBC 기본값(0, false)
+    private static ColumnReader reader(Class<?> type) {
+        if (type == long.class) {
+            return ResultSet::getLong;
+        }
+        if (type == Long.class) {
+            return (rs, index) -> {
+                long value = rs.getLong(index);
+                return rs.wasNull() ? null : value;
+            };
+        }
+        if (type == int.class) {
+            return ResultSet::getInt;
+        }
+        if (type == Integer.class) {
+            return (rs, index) -> {
+                int value = rs.getInt(index);
+                return rs.wasNull() ? null : value;
+            };
+        }
+        if (type == String.class) {
+            return ResultSet::getString;
+        }
+        if (type == boolean.class) {
+            return ResultSet::getBoolean;
+        }
+        return (rs, index) -> rs.getObject(index, type);
+    }
+
+    @FunctionalInterface
+    private interface ColumnReader {
+        Object read(ResultSet rs, int index) throws SQLException;
+    }
+
+}
@@ -0,0 +1,108 @@
+package study.datajpa.repository.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * in :keys 조회를 chunkSize개씩 나눠 실행하고 결과를 합친다.
+ *
+ * - 중복 키는 한 번만 넘긴다. 키가 없으면 쿼리를 실행하지 않는다. (in () 는 문법 오류인 DB가 있다)
+ * - chunkSize 이하면 그대로 한 번 실행
+ * - 호출 쪽 트랜잭션이 있으면 청크를 호출 스레드에서 차례로 실행한다. (같은 영속성 컨텍스트 -> 엔티티는 영속 상태)
+ * - 트랜잭션이 없으면 청크를 threads개까지 병렬로, 청크마다 readOnly 트랜잭션에서 실행한다. (엔티티는 준영속)
+ *   큐가 가득 차면 호출 스레드에서 실행한다.
+ *
+ * 청크 크기를 2의 거듭제곱으로 두면 in_clause_parameter_padding으로 채워지는 파라미터가 없다.
+ * 결과 순서는 청크 순서대로 합친 것. 청크 안의 순서는 쿼리를 따른다.
+ */
+@Component
+public class InQueryExecutor {
+
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final ThreadPoolExecutor executor;
+
+    public InQueryExecutor(PlatformTransactionManager transactionManager,
+                           @Value("${datajpa.in-query.chunk-size:512}") int chunkSize,
+                           @Value("${datajpa.in-query.threads:4}") int threads) {
+        Assert.isTrue(chunkSize > 0, "chunkSize must be greater than 0");
+        this.chunkSize = chunkSize;
+
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setReadOnly(true);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("in-query-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 2), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+
+    /**
+     * @param query 청크 하나를 받아 in 조회를 실행한다. (여러 스레드에서 동시에 호출될 수 있다)
+     */
+    public <K, R> List<R> execute(Collection<K> keys, Function<List<K>, List<R>> query) {
+        List<K> distinct = new ArrayList<>(new LinkedHashSet<>(keys));
+        if (distinct.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (distinct.size() <= chunkSize) {
+            return query.apply(distinct);
+        }
+
+        List<List<K>> chunks = new ArrayList<>();
+        for (int i = 0; i < distinct.size(); i += chunkSize) {
+            chunks.add(distinct.subList(i, Math.min(i + chunkSize, distinct.size())));
+        }
+
+        List<R> result = new ArrayList<>(distinct.size());
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            chunks.forEach(chunk -> result.addAll(query.apply(chunk)));
+            return result;
+        }
+
+        List<CompletableFuture<List<R>>> futures = new ArrayList<>(chunks.size());
+        for (List<K> chunk : chunks) {
+            futures.add(CompletableFuture.supplyAsync(() -> chunkTransaction.execute(status -> query.apply(chunk)), executor));
+        }
+        try {
+            futures.forEach(future -> result.addAll(future.join()));
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(false)); // 아직 시작하지 않은 청크는 실행하지 않는다
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+}
@@ -0,0 +1,169 @@
+package study.datajpa.repository.support;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 네이티브 쿼리의 조인 조건 검사. ON/USING 없는 JOIN은 카테시안 곱이 된다. (member x team)
+ *
+ * - 기동 시: 리포지토리의 @Query(nativeQuery = true) value, countQuery를 검사해서 하나라도 있으면 기동 실패
+ * - 코드에서 쓰는 네이티브 SQL 상수는 requireJoinConditions로 감싸 둔다. (클래스 로딩 시 검사)
+ *
+ * CROSS JOIN, NATURAL JOIN은 의도한 것으로 보고 넘어간다. 콤마 조인(from a, b)은 검사하지 않는다.
+ * SQL 파서가 아니라 토큰 검사라 최상위 FROM 절만 본다. 서브쿼리 안의 JOIN은 오탐을 피하려고 검사하지 않는다.
+ */
+@Slf4j
+@Component
+public class NativeJoinValidator implements SmartInitializingSingleton {
+
+    private static final Set<String> CLAUSE_END = Set.of(
+            "join", "left", "right", "inner", "full", "outer", "cross", "natural",
+            "where", "group", "order", "having", "limit", "offset", "fetch", "union", "except", "intersect", "window", "for");
+
+    private static final Pattern TOKEN = Pattern.compile("[()]|[^\\s,()]+");
+
+    private final ListableBeanFactory beanFactory;
+    private final boolean enabled;
+
+    public NativeJoinValidator(ListableBeanFactory beanFactory,
+                               @Value("${datajpa.native-query.validate-joins:true}") boolean enabled) {
+        this.beanFactory = beanFactory;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+
+        List<String> violations = new ArrayList<>();
+        Repositories repositories = new Repositories(beanFactory);
+        for (Class<?> domainType : repositories) {
+            repositories.getRepositoryInformationFor(domainType).ifPresent(information -> {
+                for (Method method : information.getRepositoryInterface().getMethods()) {
+                    Query query = method.getAnnotation(Query.class);
+                    if (query != null && query.nativeQuery()) {
+                        String name = information.getRepositoryInterface().getSimpleName() + "." + method.getName();
+                        check(name, query.value(), violations);
+                        check(name + " (countQuery)", query.countQuery(), violations);
+                    }
+                }
+            });
+        }
+
+        if (!violations.isEmpty()) {
+            throw new IllegalStateException("native query JOIN without ON/USING (cartesian product):\n  "
+                    + String.join("\n  ", violations));
+        }
+        log.debug("native query joins checked");
+    }
+
+    private static void check(String name, String sql, List<String> violations) {
+        if (StringUtils.hasText(sql)) {
+            joinsWithoutCondition(sql).forEach(join -> violations.add(name + ": " + join));
+        }
+    }
+
+
+    /**
+     * @return sql 그대로
+     * @throws IllegalArgumentException ON/USING 없는 JOIN이 있으면
+     */
+    public static String requireJoinConditions(String sql) {
+        List<String> joins = joinsWithoutCondition(sql);
+        if (!joins.isEmpty()) {
+            throw new IllegalArgumentException("JOIN without ON/USING " + joins + ": " + sql);
+        }
+        return sql;
+    }
+
+    /**
+     * 최상위 FROM 절의 조인만 본다. 괄호 안(서브쿼리, IN (...), 함수 인자)의 JOIN은 검사하지 않는다.
+     * @return 조건 없는 조인. ex) ["join team"]
+     */
+    public static List<String> joinsWithoutCondition(String sql) {
+        List<Token> tokens = tokenize(sql);
+
+        List<String> violations = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            Token join = tokens.get(i);
+            if (join.depth > 0 || !join.text.equals("join")) {
+                continue;
+            }
+            String previous = i > 0 ? tokens.get(i - 1).text : "";
+            if (previous.equals("cross") || previous.equals("natural")) {
+                continue;
+            }
+
+            boolean conditioned = false;
+            for (int j = i + 1; j < tokens.size(); j++) {
+                Token token = tokens.get(j);
+                if (token.depth > join.depth) {
+                    continue; // join (select ... where ...) t on ... 의 서브쿼리
+                }
+                if (token.text.equals("on") || token.text.equals("using")) {
+                    conditioned = true;
+                    break;
+                }
+                if (CLAUSE_END.contains(token.text)) {
+                    break;
+                }
+            }
+            if (!conditioned) {
+                Token next = i + 1 < tokens.size() ? tokens.get(i + 1) : new Token("", join.depth);
+                violations.add("join " + (next.depth > join.depth ? "(...)" : next.text));
+            }
+        }
+        return violations;
+    }
+
+    /**
+     * 소문자 단어와 괄호 깊이. 문자열 리터럴, 따옴표 식별자, 주석 안의 단어는 버린다.
+     */
+    private static List<Token> tokenize(String sql) {
+        String normalized = sql.replaceAll("'([^']|'')*'", "''")
+                .replaceAll("\"([^\"]|\"\")*\"", "\"\"")
+                .replaceAll("--[^\n]*", " ")
+                .replaceAll("(?s)/\\*.*?\\*/", " ")
+                .toLowerCase(Locale.ROOT);
+
+        List<Token> tokens = new ArrayList<>();
+        int depth = 0;
+        Matcher matcher = TOKEN.matcher(normalized);
+        while (matcher.find()) {
+            String text = matcher.group();
+            if (text.equals("(")) {
+                depth++;
+            } else if (text.equals(")")) {
+                depth = Math.max(0, depth - 1);
+            } else {
+                tokens.add(new Token(text, depth));
+            }
+        }
+        return tokens;
+    }
+
+    @RequiredArgsConstructor
+    private static class Token {
+        private final String text;
+        private final int depth;
+    }
+
+}
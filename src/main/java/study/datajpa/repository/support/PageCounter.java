@@ -0,0 +1,165 @@
+package study.datajpa.repository.support;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import study.datajpa.repository.CountStrategy;
+
+/**
+ * CountStrategy에 따라 Page의 전체 건수를 구한다.
+ *
+ * - EXACT / CACHED / ESTIMATED 는 현재 트랜잭션의 EntityManager 사용
+ * - ASYNC 는 별도 EntityManager(커넥션)를 열어서 content 쿼리와 동시에 실행
+ */
+@Component
+public class PageCounter {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final EntityManagerFactory emf;
+    private final ThreadPoolExecutor executor;
+    // 키가 조건 값마다 생기므로 개수 제한 + 쓰고 나서 TTL이 지나면 삭제
+    private final Cache<String, Long> cache;
+
+    public PageCounter(EntityManagerFactory emf,
+                       @Value("${datajpa.count.cache-ttl:30s}") Duration cacheTtl,
+                       @Value("${datajpa.count.cache-size:10000}") long cacheSize,
+                       @Value("${datajpa.count.async-threads:4}") int asyncThreads) {
+        this.emf = emf;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("count-query-");
+        threadFactory.setDaemon(true);
+        // 큐가 가득 차면 호출 스레드에서 실행 -> 동기 count와 같아질 뿐 요청이 실패하지는 않는다.
+        this.executor = new ThreadPoolExecutor(asyncThreads, asyncThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(asyncThreads * 16), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+
+    public <T> Page<T> getPage(CountStrategy strategy, CountQuery countQuery, Pageable pageable, Supplier<List<T>> content) {
+        switch (strategy) {
+            case CACHED:
+                return PageableExecutionUtils.getPage(content.get(), pageable, () -> cachedCount(countQuery));
+
+            case ESTIMATED:
+                if (countQuery.estimate == null) {
+                    return getPage(CountStrategy.CACHED, countQuery, pageable, content);
+                }
+                return PageableExecutionUtils.getPage(content.get(), pageable, () -> countQuery.estimate.apply(em));
+
+            case ASYNC:
+                CompletableFuture<Long> total = CompletableFuture.supplyAsync(() -> countInNewEntityManager(countQuery), executor);
+                List<T> list;
+                try {
+                    list = content.get();
+                } catch (RuntimeException e) {
+                    total.cancel(false);
+                    throw e;
+                }
+                return PageableExecutionUtils.getPage(list, pageable, () -> join(total));
+
+            case EXACT:
+            default:
+                return PageableExecutionUtils.getPage(content.get(), pageable, () -> countQuery.exact.apply(em));
+        }
+    }
+
+    /**
+     * 캐시된 count 전부 삭제. 대량 입력/삭제 직후처럼 TTL 동안의 오차도 허용하기 어려울 때 사용
+     */
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+
+    private long cachedCount(CountQuery countQuery) {
+        Long cached = cache.getIfPresent(countQuery.key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // 현재 트랜잭션의 EntityManager로 세므로 cache.get(key, loader) 안에서 실행하지 않는다 (로더는 락을 잡고 실행된다)
+        long count = countQuery.exact.apply(em);
+        cache.put(countQuery.key, count);
+        return count;
+    }
+
+    private long countInNewEntityManager(CountQuery countQuery) {
+        EntityManager countEm = emf.createEntityManager();
+        try {
+            return countQuery.exact.apply(countEm);
+        } finally {
+            countEm.close();
+        }
+    }
+
+    private static long join(CompletableFuture<Long> total) {
+        try {
+            return total.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+
+    /**
+     * count 쿼리 정의
+     * key는 CACHED 전략의 캐시 키. 쿼리 이름 + 조건 값으로 만든다.
+     */
+    public static class CountQuery {
+
+        private final String key;
+        private final Function<EntityManager, Long> exact;
+        private final Function<EntityManager, Long> estimate;
+
+        private CountQuery(String key, Function<EntityManager, Long> exact, Function<EntityManager, Long> estimate) {
+            this.key = key;
+            this.exact = exact;
+            this.estimate = estimate;
+        }
+
+        public static CountQuery of(String key, Function<EntityManager, Long> exact) {
+            return new CountQuery(key, exact, null);
+        }
+
+        public CountQuery withEstimate(Function<EntityManager, Long> estimate) {
+            return new CountQuery(key, exact, estimate);
+        }
+
+    }
+
+}
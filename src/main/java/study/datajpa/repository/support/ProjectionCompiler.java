@@ -0,0 +1,524 @@
+package study.datajpa.repository.support;
+
+import java.beans.Introspector;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.Attribute.PersistentAttributeType;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.CompoundExpression;
+import org.springframework.expression.spel.ast.OpPlus;
+import org.springframework.expression.spel.ast.PropertyOrFieldReference;
+import org.springframework.expression.spel.ast.StringLiteral;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.field.FieldDescription;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.method.ParameterDescription;
+import net.bytebuddy.description.modifier.FieldManifestation;
+import net.bytebuddy.description.modifier.TypeManifestation;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.implementation.FieldAccessor;
+import net.bytebuddy.implementation.Implementation;
+import net.bytebuddy.implementation.bytecode.ByteCodeAppender;
+import net.bytebuddy.implementation.bytecode.StackManipulation;
+import net.bytebuddy.implementation.bytecode.member.FieldAccess;
+import net.bytebuddy.implementation.bytecode.member.MethodInvocation;
+import net.bytebuddy.implementation.bytecode.member.MethodReturn;
+import net.bytebuddy.implementation.bytecode.member.MethodVariableAccess;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.matcher.ElementMatchers;
+
+/**
+ * 프로젝션을 JDK 프록시 대신 만들어 둔 클래스로 조회한다. (ByteBuddy로 인터페이스 구현 클래스를 생성)
+ *
+ * Spring Data 프로젝션과 비교
+ * - 닫힌 인터페이스 프로젝션: Tuple -> Map 기반 프록시 => 필요한 컬럼만 select 해서 생성된 클래스의 생성자로
+ * - 열린 인터페이스 프로젝션(@Value SpEL): 엔티티 전체 조회 + 행마다 SpEL 평가
+ *   => 식이 참조하는 컬럼만 select, 식은 자바 함수로 바꿔서 실행한다.
+ *   지원하는 식: target.속성(엔티티 기본 속성), 문자열 리터럴, 문자열 연결(+)
+ * - 중첩 닫힌 프로젝션(다대일/일대일 연관): 연관 엔티티 전체를 조회 => left join 해서 참조하는 컬럼만, 중첩 클래스로
+ *   ex) NestedClosedProjections: select e.username, e_team.id, e_team.name from Member e left join e.team e_team
+ *   연관이 없으면(e_team.id가 null) getTeam()은 null
+ * - DTO 클래스: 생성자 파라미터 이름으로 컬럼을 골라 생성자로 (컴파일 시 -parameters 또는 디버그 정보 필요)
+ *
+ * 그 밖의 모양(컬렉션 연관, 메서드 호출 식 등)은 Spring Data와 같은 방식(엔티티 조회 + 프록시)으로 조회한다.
+ * 프로젝션은 처음 쓸 때 한 번 컴파일해서 캐시한다. 기동 시점에 만들어 두려면 precompile
+ */
+@Component
+public class ProjectionCompiler {
+
+    private static final String ALIAS = "e";
+    private static final String TEMPLATE_PREFIX = "#{";
+    private static final String TEMPLATE_SUFFIX = "}";
+    private static final int MAX_NESTING = 3; // 중첩 깊이 (a.b.c). 자기 자신을 참조하는 연관 (ex. 상위 회원) 에서 끝없이 들어가지 않게
+
+    private final Metamodel metamodel;
+    private final SpelAwareProxyProjectionFactory proxyFactory = new SpelAwareProxyProjectionFactory();
+    private final SpelExpressionParser parser = new SpelExpressionParser();
+    private final ParameterNameDiscoverer parameterNames = new DefaultParameterNameDiscoverer();
+    private final ConcurrentMap<List<Class<?>>, Optional<CompiledProjection<?>>> projections = new ConcurrentHashMap<>();
+
+    public ProjectionCompiler(EntityManagerFactory emf, BeanFactory beanFactory) {
+        this.metamodel = emf.getMetamodel();
+        this.proxyFactory.setBeanFactory(beanFactory); // @Value 식의 @bean 참조
+    }
+
+
+    /**
+     * select ... from {entityType} e where {where}
+     * @param where 엔티티 별칭은 e (ex. "e.username = :username")
+     */
+    public <T> List<T> list(EntityManager em, Class<?> entityType, Class<T> type, String where, Map<String, ?> parameters) {
+        String entityName = metamodel.entity(entityType).getName();
+        String from = " from " + entityName + " " + ALIAS + " where " + where;
+
+        if (type.isAssignableFrom(entityType)) {
+            return bind(em.createQuery("select " + ALIAS + from, type), parameters).getResultList();
+        }
+
+        CompiledProjection<T> projection = compile(entityType, type);
+        if (projection == null && !type.isInterface()) {
+            throw new IllegalArgumentException("unsupported projection class: " + type.getName()
+                    + " (single public constructor with basic attribute parameter names required)");
+        }
+        if (projection == null) {
+            return bind(em.createQuery("select " + ALIAS + from, entityType), parameters).getResultList().stream()
+                    .map(entity -> proxyFactory.createProjection(type, entity))
+                    .collect(Collectors.toList());
+        }
+
+        String jpql = "select " + projection.select(ALIAS) + " from " + entityName + " " + ALIAS + projection.joins(ALIAS) + " where " + where;
+        List<?> rows = bind(em.createQuery(jpql), parameters).getResultList();
+        List<T> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            result.add(projection.map(row instanceof Object[] ? (Object[]) row : new Object[] {row}));
+        }
+        return result;
+    }
+
+    public void precompile(Class<?> entityType, Class<?>... types) {
+        Arrays.stream(types).forEach(type -> compile(entityType, type));
+    }
+
+    /**
+     * @return 지원하지 않는 모양이면 null (Spring Data 프록시로 조회)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompiledProjection<T> compile(Class<?> entityType, Class<T> type) {
+        return (CompiledProjection<T>) projections.computeIfAbsent(Arrays.asList(entityType, type),
+                key -> Optional.ofNullable(type.isInterface()
+                        ? compileInterface(metamodel.entity(entityType), type, "", new Selection(), 0)
+                        : compileClass(metamodel.entity(entityType), type)))
+                .orElse(null);
+    }
+
+
+    /**
+     * @param path 루트에서 entity까지의 연관 경로 ("" 또는 "team.")
+     * @param selection 루트와 중첩 프로젝션이 같이 쓰는 select 절
+     * @param depth 루트 0, team. 은 1
+     */
+    private <T> CompiledProjection<T> compileInterface(EntityType<?> entity, Class<T> type, String path, Selection selection, int depth) {
+        List<Method> getters = getters(type);
+        if (getters == null || !isPublic(type) || !getters.stream().map(Method::getReturnType).allMatch(ProjectionCompiler::isPublic)) {
+            return null;
+        }
+
+        List<Function<Object[], Object>> properties = new ArrayList<>();
+        for (Method getter : getters) {
+            Value value = getter.getAnnotation(Value.class);
+            Function<Object[], Object> property;
+            if (value != null) {
+                property = compileExpression(entity, value.value(), path, selection);
+            } else if (getter.getReturnType().isInterface()) {
+                property = nested(entity, path, propertyName(getter), getter.getReturnType(), selection, depth);
+            } else {
+                property = column(entity, path, propertyName(getter), selection);
+            }
+            if (property == null) {
+                return null;
+            }
+            properties.add(property);
+        }
+
+        Class<?> implementation = generate(type, getters);
+        return new CompiledProjection<>(implementation, selection, properties,
+                constructor(implementation, getters.stream().map(Method::getReturnType).toArray(Class[]::new)));
+    }
+
+    // 다대일/일대일 연관의 중첩 프로젝션. 연관 엔티티는 로딩하지 않고 left join 한 컬럼으로 만든다
+    private Function<Object[], Object> nested(EntityType<?> entity, String path, String name, Class<?> type, Selection selection, int depth) {
+        Attribute<?, ?> attribute = attribute(entity, name);
+        if (attribute == null || (attribute.getPersistentAttributeType() != PersistentAttributeType.MANY_TO_ONE
+                && attribute.getPersistentAttributeType() != PersistentAttributeType.ONE_TO_ONE)) {
+            return null;
+        }
+
+        if (depth >= MAX_NESTING) { // 옆으로 나란한 연관 수(조인 수)는 제한하지 않는다
+            return null;
+        }
+
+        EntityType<?> target = metamodel.entity(attribute.getJavaType());
+        String joined = path + name;
+        selection.joins.add(joined);
+
+        String idName = target.getSingularAttributes().stream()
+                .filter(SingularAttribute::isId)
+                .map(Attribute::getName)
+                .findFirst()
+                .orElse(null);
+        Function<Object[], Object> id = idName != null ? column(target, joined + ".", idName, selection) : null;
+        CompiledProjection<?> projection = compileInterface(target, type, joined + ".", selection, depth + 1);
+        if (id == null || projection == null) {
+            return null;
+        }
+        return row -> id.apply(row) == null ? null : projection.map(row);
+    }
+
+    private <T> CompiledProjection<T> compileClass(EntityType<?> entity, Class<T> type) {
+        Constructor<?>[] constructors = type.getConstructors();
+        if (constructors.length != 1 || !isPublic(type)) {
+            return null;
+        }
+        String[] names = parameterNames.getParameterNames(constructors[0]);
+        if (names == null) {
+            return null;
+        }
+
+        Selection selection = new Selection();
+        List<Function<Object[], Object>> properties = new ArrayList<>();
+        for (String name : names) {
+            Function<Object[], Object> property = column(entity, "", name, selection);
+            if (property == null) {
+                return null;
+            }
+            properties.add(property);
+        }
+        return new CompiledProjection<>(type, selection, properties, constructor(type, constructors[0].getParameterTypes()));
+    }
+
+    // 추상 메서드가 전부 인자 없는 getter여야 한다. 상위 인터페이스에서 같은 getter를 다시 선언했으면 @Value가 붙은 쪽
+    private static List<Method> getters(Class<?> type) {
+        Map<String, Method> getters = new TreeMap<>();
+        for (Method method : type.getMethods()) {
+            if (method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            if (method.getParameterCount() != 0 || method.getReturnType() == void.class || propertyName(method) == null) {
+                return null;
+            }
+            getters.merge(method.getName(), method,
+                    (existing, other) -> existing.isAnnotationPresent(Value.class) ? existing : other);
+        }
+        return new ArrayList<>(getters.values());
+    }
+
+    /**
+     * 생성한 클래스는 다른 클래스 로더(다른 런타임 패키지)에 올라가고 생성자는 publicLookup으로 찾는다.
+     * public이 아닌 타입은 구현하거나 참조할 수 없으므로 (IllegalAccessError) 프록시로 조회한다.
+     */
+    private static boolean isPublic(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        return Modifier.isPublic(type.getModifiers()); // 중첩 타입은 바깥 클래스와 상관없이 자기 선언이 public이면 접근 가능
+    }
+
+    private static String propertyName(Method getter) {
+        String name = getter.getName();
+        if (name.startsWith("get") && name.length() > 3) {
+            return Introspector.decapitalize(name.substring(3));
+        }
+        if (name.startsWith("is") && name.length() > 2) {
+            return Introspector.decapitalize(name.substring(2));
+        }
+        return null;
+    }
+
+    // 엔티티 기본 속성 하나. 같은 속성은 한 번만 select
+    private static Function<Object[], Object> column(EntityType<?> entity, String path, String name, Selection selection) {
+        Attribute<?, ?> attribute = attribute(entity, name);
+        if (attribute == null || attribute.getPersistentAttributeType() != PersistentAttributeType.BASIC) {
+            return null;
+        }
+
+        int column = selection.column(path + name);
+        return row -> row[column];
+    }
+
+    private static Attribute<?, ?> attribute(EntityType<?> entity, String name) {
+        return entity.getAttributes().stream()
+                .filter(candidate -> candidate.getName().equals(name))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static class Selection {
+
+        private final List<String> columns = new ArrayList<>(); // "username", "team.name"
+        private final Set<String> joins = new LinkedHashSet<>(); // "team". 부모 경로가 먼저
+
+        int column(String path) {
+            int index = columns.indexOf(path);
+            if (index < 0) {
+                index = columns.size();
+                columns.add(path);
+            }
+            return index;
+        }
+
+    }
+
+
+    /* @Value 식 -> 자바 함수 */
+
+    private Function<Object[], Object> compileExpression(EntityType<?> entity, String template, String path, Selection selection) {
+        if (!template.startsWith(TEMPLATE_PREFIX) || !template.endsWith(TEMPLATE_SUFFIX)) {
+            return null;
+        }
+        String source = template.substring(TEMPLATE_PREFIX.length(), template.length() - TEMPLATE_SUFFIX.length());
+
+        SpelNode ast;
+        try {
+            ast = ((SpelExpression) parser.parseExpression(source)).getAST();
+        } catch (ParseException e) {
+            return null; // Spring Data도 실패하지만 에러는 그쪽 메시지로
+        }
+        Compiled compiled = compileNode(entity, ast, path, selection);
+        return compiled != null ? compiled.function : null;
+    }
+
+    private static Compiled compileNode(EntityType<?> entity, SpelNode node, String path, Selection selection) {
+        if (node instanceof StringLiteral) {
+            Object literal = ((StringLiteral) node).getLiteralValue().getValue();
+            return new Compiled(row -> literal, String.class);
+        }
+
+        // target.username
+        if (node instanceof CompoundExpression && node.getChildCount() == 2
+                && node.getChild(0) instanceof PropertyOrFieldReference
+                && node.getChild(1) instanceof PropertyOrFieldReference
+                && "target".equals(((PropertyOrFieldReference) node.getChild(0)).getName())) {
+            String name = ((PropertyOrFieldReference) node.getChild(1)).getName();
+            Function<Object[], Object> column = column(entity, path, name, selection);
+            return column != null ? new Compiled(column, entity.getAttribute(name).getJavaType()) : null;
+        }
+
+        // 한쪽이 문자열이면 SpEL도 문자열 연결 (null은 "null")
+        if (node instanceof OpPlus && node.getChildCount() == 2) {
+            Compiled left = compileNode(entity, node.getChild(0), path, selection);
+            Compiled right = compileNode(entity, node.getChild(1), path, selection);
+            if (left == null || right == null || (left.type != String.class && right.type != String.class)) {
+                return null;
+            }
+            Function<Object[], Object> l = left.function;
+            Function<Object[], Object> r = right.function;
+            return new Compiled(row -> String.valueOf(l.apply(row)).concat(String.valueOf(r.apply(row))), String.class);
+        }
+
+        return null;
+    }
+
+    private static class Compiled {
+
+        private final Function<Object[], Object> function;
+        private final Class<?> type;
+
+        Compiled(Function<Object[], Object> function, Class<?> type) {
+            this.function = function;
+            this.type = type;
+        }
+
+    }
+
+
+    /* 구현 클래스 생성 */
+
+    /**
+     * getter마다 final 필드 하나, 필드를 getter 순서대로 받는 생성자
+     * public final class UsernameOnly$Compiled implements UsernameOnly {
+     *     private final String p0;
+     *     public UsernameOnly$Compiled(String p0) { this.p0 = p0; }
+     *     public String getUsername() { return p0; }
+     * }
+     */
+    private static Class<?> generate(Class<?> type, List<Method> getters) {
+        DynamicType.Builder<Object> builder = new ByteBuddy()
+                .subclass(Object.class)
+                .name(type.getName() + "$Compiled")
+                .implement(type)
+                .modifiers(Visibility.PUBLIC, TypeManifestation.FINAL);
+
+        for (int i = 0; i < getters.size(); i++) {
+            Method getter = getters.get(i);
+            builder = builder
+                    .defineField(field(i), getter.getReturnType(), Visibility.PRIVATE, FieldManifestation.FINAL)
+                    .method(ElementMatchers.named(getter.getName()).and(ElementMatchers.takesArguments(0)))
+                    .intercept(FieldAccessor.ofField(field(i)));
+        }
+
+        return builder
+                .defineConstructor(Visibility.PUBLIC)
+                .withParameters(getters.stream().map(Method::getReturnType).collect(Collectors.toList()))
+                .intercept(new Implementation.Simple((ByteCodeAppender) ProjectionCompiler::assignFields))
+                .make()
+                .load(type.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+                .getLoaded();
+    }
+
+    // super(); this.p0 = p0; this.p1 = p1; ...
+    private static ByteCodeAppender.Size assignFields(MethodVisitor methodVisitor,
+                                                     Implementation.Context context, MethodDescription constructor) {
+        List<StackManipulation> code = new ArrayList<>();
+        code.add(MethodVariableAccess.loadThis());
+        try {
+            code.add(MethodInvocation.invoke(new MethodDescription.ForLoadedConstructor(Object.class.getConstructor())));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+
+        for (ParameterDescription parameter : constructor.getParameters()) {
+            FieldDescription.InDefinedShape field = context.getInstrumentedType().getDeclaredFields()
+                    .filter(ElementMatchers.named(field(parameter.getIndex())))
+                    .getOnly();
+            code.add(MethodVariableAccess.loadThis());
+            code.add(MethodVariableAccess.load(parameter));
+            code.add(FieldAccess.forField(field).write());
+        }
+        code.add(MethodReturn.VOID);
+
+        StackManipulation.Size size = new StackManipulation.Compound(code).apply(methodVisitor, context);
+        return new ByteCodeAppender.Size(size.getMaximalSize(), constructor.getStackSize());
+    }
+
+    private static String field(int index) {
+        return "p" + index;
+    }
+
+    // (Object[]) -> Object. 행마다 리플렉션 없이 생성자 호출 (primitive 파라미터는 언박싱)
+    private static MethodHandle constructor(Class<?> type, Class<?>[] parameterTypes) {
+        try {
+            return MethodHandles.publicLookup()
+                    .findConstructor(type, MethodType.methodType(void.class, parameterTypes))
+                    .asSpreader(Object[].class, parameterTypes.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("projection constructor not accessible: " + type.getName(), e);
+        }
+    }
+
+
+    public static class CompiledProjection<T> {
+
+        private final Class<?> implementation;
+        private final Selection selection;
+        private final List<Function<Object[], Object>> properties;
+        private final MethodHandle constructor;
+
+        CompiledProjection(Class<?> implementation, Selection selection,
+                           List<Function<Object[], Object>> properties, MethodHandle constructor) {
+            this.implementation = implementation;
+            this.selection = selection;
+            this.properties = properties;
+            this.constructor = constructor;
+        }
+
+        public Class<?> getImplementation() {
+            return implementation;
+        }
+
+        // 루트 기준 경로. ex) "team.id", "team.name", "username"
+        public List<String> getColumns() {
+            return Collections.unmodifiableList(selection.columns);
+        }
+
+        // select 절. ex) "e_team.id, e_team.name, e.username"
+        public String select(String alias) {
+            return selection.columns.stream()
+                    .map(column -> {
+                        int dot = column.lastIndexOf('.');
+                        return aliasOf(alias, dot < 0 ? "" : column.substring(0, dot)) + "." + column.substring(dot + 1);
+                    })
+                    .collect(Collectors.joining(", "));
+        }
+
+        // 중첩 프로젝션 연관의 left join. ex) " left join e.team e_team"
+        public String joins(String alias) {
+            StringBuilder joins = new StringBuilder();
+            for (String join : selection.joins) {
+                int dot = join.lastIndexOf('.');
+                String parent = dot < 0 ? "" : join.substring(0, dot);
+                joins.append(" left join ").append(aliasOf(alias, parent)).append('.').append(join.substring(dot + 1))
+                        .append(' ').append(aliasOf(alias, join));
+            }
+            return joins.toString();
+        }
+
+        private static String aliasOf(String alias, String path) {
+            return path.isEmpty() ? alias : alias + "_" + path.replace('.', '_');
+        }
+
+        /**
+         * @param row select(alias) 순서의 값
+         */
+        @SuppressWarnings("unchecked")
+        public T map(Object[] row) {
+            Object[] values = new Object[properties.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = properties.get(i).apply(row);
+            }
+            try {
+                return (T) (Object) constructor.invokeExact(values);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+    }
+
+
+    private static <Q extends Query> Q bind(Q query, Map<String, ?> parameters) {
+        parameters.forEach((name, value) -> query.setParameter(name, value));
+        return query;
+    }
+
+}
@@ -0,0 +1,125 @@
+package study.datajpa.repository.support;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * 구조(어떤 조건들의 조합인지)와 값이 분리된 Specification
+ *
+ * - Specification으로도 그대로 쓸 수 있다. (findAll(Specification) -> Criteria)
+ * - SpecificationCompiler는 구조가 같으면 같은 JPQL 템플릿을 재사용하고 값은 파라미터로만 바인딩한다.
+ *   -> Criteria 트리 생성/렌더링이 없고, Hibernate 쿼리 플랜 캐시도 조합당 하나만 쓴다.
+ *
+ * JPQL 조각의 루트 별칭은 e, 값 자리는 {} (ex. "e.username = {}")
+ * where: 값이 null인 조건은 빠진다. (구조도 달라진다) / whereNullable: null도 그대로 바인딩
+ */
+public class QuerySpec<T> implements Specification<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<Part<T>> parts;
+
+    private QuerySpec(List<Part<T>> parts) {
+        this.parts = parts;
+    }
+
+    /**
+     * @param key 조건 이름. 구조 키가 된다.
+     * @param join 필요한 조인 ("join e.team t"). 같은 조인은 한 번만 들어간다. 없으면 null
+     * @param predicate JPQL 조건
+     * @param criteria 같은 조건의 Criteria 버전 (Specification으로 쓸 때)
+     */
+    public static <T> QuerySpec<T> where(String key, String join, String predicate, Object value, Specification<T> criteria) {
+        if (value == null) {
+            return new QuerySpec<>(Collections.emptyList());
+        }
+        return new QuerySpec<>(Collections.singletonList(new Part<>(key, join, predicate, value, criteria)));
+    }
+
+    /**
+     * where와 같지만 값이 null이어도 조건을 남긴다. ("e.username = null" -> 맞는 행 없음, Criteria의 equal(x, null)과 같음)
+     */
+    public static <T> QuerySpec<T> whereNullable(String key, String join, String predicate, Object value, Specification<T> criteria) {
+        return new QuerySpec<>(Collections.singletonList(new Part<>(key, join, predicate, value, criteria)));
+    }
+
+    public QuerySpec<T> and(QuerySpec<T> other) {
+        List<Part<T>> combined = new ArrayList<>(parts.size() + other.parts.size());
+        combined.addAll(parts);
+        combined.addAll(other.parts);
+        return new QuerySpec<>(combined);
+    }
+
+    @Override
+    public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder builder) {
+        List<Predicate> predicates = new ArrayList<>(parts.size());
+        for (Part<T> part : parts) {
+            Predicate predicate = part.criteria.toPredicate(root, query, builder);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        return predicates.isEmpty() ? null : builder.and(predicates.toArray(new Predicate[0]));
+    }
+
+
+    String structureKey() {
+        return parts.stream().map(part -> part.key).collect(Collectors.joining(","));
+    }
+
+    List<Object> values() {
+        return parts.stream().map(part -> part.value).collect(Collectors.toList());
+    }
+
+    /**
+     * select e from {entityName} e [joins] [where p0 and p1 ...]
+     * 값 자리는 :p0, :p1 ... 순서대로
+     */
+    String toJpql(String entityName) {
+        StringBuilder jpql = new StringBuilder("select e from ").append(entityName).append(" e");
+
+        Set<String> joins = new LinkedHashSet<>();
+        parts.stream().filter(part -> part.join != null).forEach(part -> joins.add(part.join));
+        joins.forEach(join -> jpql.append(' ').append(join));
+
+        for (int i = 0; i < parts.size(); i++) {
+            jpql.append(i == 0 ? " where " : " and ")
+                    .append(parts.get(i).predicate.replace("{}", ":p" + i));
+        }
+        return jpql.toString();
+    }
+
+
+    private static class Part<T> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String key;
+        private final String join;
+        private final String predicate;
+        private final Object value; // 바인딩 값. Serializable이 아니면 직렬화되지 않는다
+        private final Specification<T> criteria;
+
+        Part(String key, String join, String predicate, Object value, Specification<T> criteria) {
+            this.key = key;
+            this.join = join;
+            this.predicate = predicate;
+            this.value = value;
+            this.criteria = criteria;
+        }
+
+    }
+
+}
@@ -0,0 +1,57 @@
+package study.datajpa.repository.support;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * QuerySpec -> JPQL 템플릿. 템플릿은 (엔티티, 구조 키)로 캐시한다. 값은 호출마다 파라미터로 바인딩
+ *
+ * 템플릿 수는 조건 조합 수만큼이라 작다. (값마다 늘지 않는다)
+ */
+@Component
+public class SpecificationCompiler {
+
+    private final ConcurrentMap<String, String> templates = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public <T> TypedQuery<T> createQuery(EntityManager em, Class<T> type, QuerySpec<T> spec) {
+        String key = type.getName() + ":" + spec.structureKey();
+
+        String jpql = templates.get(key);
+        if (jpql != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            String entityName = em.getMetamodel().entity(type).getName();
+            jpql = templates.computeIfAbsent(key, k -> spec.toJpql(entityName));
+        }
+
+        TypedQuery<T> query = em.createQuery(jpql, type);
+        List<Object> values = spec.values();
+        for (int i = 0; i < values.size(); i++) {
+            query.setParameter("p" + i, values.get(i));
+        }
+        return query;
+    }
+
+    public int getTemplateCount() {
+        return templates.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+}
@@ -0,0 +1,109 @@
+package study.datajpa.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import lombok.Getter;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+
+/**
+ * 회원 전체 내보내기
+ * 한 건씩 읽어서 바로 OutputStream에 쓰므로 건수와 상관없이 메모리 사용량이 일정하다.
+ */
+@Service
+public class MemberExportService {
+
+    private final MemberRepository memberRepository;
+    private final ObjectWriter jsonWriter;
+    private final int fetchSize;
+
+    public MemberExportService(MemberRepository memberRepository, ObjectMapper objectMapper,
+                               @Value("${datajpa.export.fetch-size:500}") int fetchSize) {
+        this.memberRepository = memberRepository;
+        this.jsonWriter = objectMapper.writerFor(MemberDto.class);
+        this.fetchSize = fetchSize;
+    }
+
+
+    /**
+     * readOnly: FlushMode.MANUAL + 스냅샷 없는 읽기 전용 세션
+     * @return 내보낸 회원 수
+     */
+    @Transactional(readOnly = true)
+    public long export(Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write("id,username,teamName\n");
+        }
+
+        long count = 0;
+        try (Stream<MemberDto> members = memberRepository.streamMemberDto(fetchSize)) {
+            Iterator<MemberDto> iterator = members.iterator();
+            while (iterator.hasNext()) {
+                MemberDto member = iterator.next();
+                if (format == Format.CSV) {
+                    writeCsv(writer, member);
+                } else {
+                    writer.write(jsonWriter.writeValueAsString(member));
+                    writer.write('\n');
+                }
+                count++;
+            }
+        }
+
+        writer.flush();
+        return count;
+    }
+
+
+    private static void writeCsv(Writer writer, MemberDto member) throws IOException {
+        writer.write(String.valueOf(member.getId()));
+        writer.write(',');
+        writer.write(csv(member.getUsername()));
+        writer.write(',');
+        writer.write(csv(member.getTeamName()));
+        writer.write('\n');
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+
+    @Getter
+    public enum Format {
+
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+    }
+
+}
@@ -0,0 +1,67 @@
+package study.datajpa.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+/**
+ * 샘플 회원 입력. (원래 MemberController @PostConstruct에서 하던 것)
+ * 기동이 끝난 뒤(ApplicationReadyEvent) 배치 insert 한 번으로 넣는다. 회원이 이미 있으면 넣지 않는다.
+ * datajpa.seed.async=true 면 applicationTaskExecutor에서 넣으므로 첫 요청 때는 아직 없을 수 있다.
+ */
+@Slf4j
+@Component
+public class SeedDataLoader {
+
+    private final MemberRepository memberRepository;
+    private final Executor executor;
+    private final int members;
+    private final boolean async;
+
+    public SeedDataLoader(MemberRepository memberRepository,
+                          @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor executor,
+                          @Value("${datajpa.seed.members:40}") int members,
+                          @Value("${datajpa.seed.async:false}") boolean async) {
+        this.memberRepository = memberRepository;
+        this.executor = executor;
+        this.members = members;
+        this.async = async;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (members <= 0) {
+            return;
+        }
+        if (async) {
+            executor.execute(this::load);
+        } else {
+            load();
+        }
+    }
+
+    void load() {
+        if (memberRepository.count() > 0) {
+            return;
+        }
+
+        List<Member> list = new ArrayList<>(members);
+        for (int i = 0; i < members; i++) {
+            list.add(new Member("user" + i, i));
+        }
+        memberRepository.saveAllBatched(list, members);
+        log.info("seed data loaded: {} members", members);
+    }
+
+}
@@ -0,0 +1,31 @@
+-- 엔티티 매핑과 같은 스키마 (ddl-auto: validate 로 검증)
+create sequence member_seq start with 1 increment by 50;
+create sequence team_seq start with 1 increment by 50;
+
+create table team (
+    team_id bigint not null,
+    name varchar(255),
+    primary key (team_id)
+);
+
+create table member (
+    member_id bigint not null,
+    created_date timestamp,
+    last_modified_date timestamp,
+    created_by varchar(255),
+    last_modified_by varchar(255),
+    age integer not null,
+    username varchar(255),
+    team_id bigint,
+    primary key (member_id)
+);
+
+create table item (
+    id varchar(255) not null,
+    created_date timestamp,
+    primary key (id)
+);
+
+-- 외래 키 인덱스를 먼저 만들어 두면 H2가 제약 조건용 인덱스를 따로 만들지 않는다
+create index idx_member_team on member (team_id);
+alter table member add constraint fk_member_team foreign key (team_id) references team;
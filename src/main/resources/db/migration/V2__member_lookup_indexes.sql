@@ -0,0 +1,10 @@
+-- 회원 조회 경로별 인덱스
+
+-- findByUsername, findByNames, MemberSpec.username, 키셋 페이징 (username, id) 정렬
+create index idx_member_username on member (username, member_id);
+
+-- findByAge + username 정렬 페이징, MemberJpaRepository.findByPage, bulkAddAge (age >= ?)
+create index idx_member_age_username on member (age, username);
+
+-- MemberSpec.teamName (팀 이름으로 찾고 team_id로 회원 조인)
+create index idx_team_name on team (name);
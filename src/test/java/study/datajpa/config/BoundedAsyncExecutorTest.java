@@ -0,0 +1,68 @@
+package study.datajpa.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+class BoundedAsyncExecutorTest {
+
+    BoundedAsyncExecutor executor = new BoundedAsyncExecutor(1, 1, false);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+
+    @Test
+    public void rejectsWhenWaitingIsFull() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+
+        // 1개 실행 중, 1개 대기
+        executor.execute(() -> {
+            running.countDown();
+            await(release);
+            done.countDown();
+        });
+        running.await(5, TimeUnit.SECONDS);
+        executor.execute(done::countDown);
+
+        assertThat(executor.getActiveCount()).isEqualTo(1);
+        assertThat(executor.getWaitingCount()).isEqualTo(1);
+
+        // 대기 자리가 없으면 바로 거절
+        assertThatThrownBy(() -> executor.execute(() -> { }))
+                .isInstanceOf(TaskRejectedException.class);
+
+        release.countDown();
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.getWaitingCount()).isZero();
+    }
+
+    @Test
+    public void fallsBackToPlatformThreads() {
+        BoundedAsyncExecutor preferVirtual = new BoundedAsyncExecutor(1, 1, true);
+        try {
+            assertThat(preferVirtual.isVirtual()).isEqualTo(Runtime.version().feature() >= 21);
+        } finally {
+            preferVirtual.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
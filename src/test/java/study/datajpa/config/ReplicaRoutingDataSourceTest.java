@@ -0,0 +1,76 @@
+package study.datajpa.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "datajpa.datasource.replica-lag=10s",
+        "datajpa.datasource.replicas[0].url=jdbc:h2:mem:replica1;DB_CLOSE_DELAY=-1",
+        "datajpa.datasource.replicas[0].username=sa",
+        "datajpa.datasource.replicas[1].url=jdbc:h2:mem:replica2;DB_CLOSE_DELAY=-1",
+        "datajpa.datasource.replicas[1].username=sa",
+})
+class ReplicaRoutingDataSourceTest {
+
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        ReplicaRoutingContext.clear();
+    }
+
+
+    @Test
+    public void readOnlyGoesToReplicas() {
+        Set<String> databases = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            databases.add(database(true));
+        }
+
+        assertThat(databases).containsExactlyInAnyOrder("REPLICA1", "REPLICA2");
+        assertThat(database(false)).isEqualTo("PRIMARY");
+    }
+
+    @Test
+    public void readAfterWriteGoesToPrimary() {
+        assertThat(database(true)).startsWith("REPLICA");
+
+        database(false);
+
+        // replica-lag 동안은 readOnly여도 primary
+        assertThat(database(true)).isEqualTo("PRIMARY");
+
+        ReplicaRoutingContext.clear();
+        assertThat(database(true)).startsWith("REPLICA");
+    }
+
+    @Test
+    public void rolledBackWriteDoesNotPin() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("call database()", String.class);
+            status.setRollbackOnly();
+        });
+
+        assertThat(database(true)).startsWith("REPLICA");
+    }
+
+    private String database(boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(readOnly);
+        return tx.execute(status -> jdbcTemplate.queryForObject("call database()", String.class)).toUpperCase();
+    }
+
+}
@@ -1,5 +1,7 @@
 package study.datajpa.entity;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import java.util.List;
 
 import javax.persistence.EntityManager;
@@ -75,4 +77,53 @@ class MemberTest {
 
     }
 
+
+    @Test
+    public void auditorCachedPerTransaction() {
+        // given
+        Member member1 = new Member("audit1");
+        Member member2 = new Member("audit2");
+
+        // when
+        memberRepository.save(member1);
+        memberRepository.save(member2);
+        em.flush();
+
+        // then: 같은 트랜잭션이면 작성자는 한 번만 구한다
+        assertThat(member1.getCreatedBy()).isNotNull();
+        assertThat(member1.getCreatedBy()).isEqualTo(member2.getCreatedBy());
+        assertThat(member1.getLastModifiedBy()).isEqualTo(member1.getCreatedBy());
+        assertThat(member1.getCreatedDate()).isEqualTo(member1.getLastModifiedDate());
+    }
+
+    @Test
+    public void createdDateIsPersistTime() throws Exception {
+        // given: flush 없이 시간 차를 두고 persist
+        Member member1 = memberRepository.save(new Member("created1"));
+        Thread.sleep(20);
+        Member member2 = memberRepository.save(new Member("created2"));
+
+        // when
+        em.flush();
+
+        // then: flush 시각이 아니라 각자 persist한 시각
+        assertThat(member2.getCreatedDate()).isAfter(member1.getCreatedDate());
+    }
+
+    @Test
+    public void createdDateAfterQuery() throws Exception {
+        // given: JPQL 조회가 auto flush를 일으킨다 (바뀐 게 없으면 postFlush 없이 끝남)
+        Member member1 = memberRepository.save(new Member("query1"));
+        em.flush();
+        memberRepository.findByUsername("query1");
+        Thread.sleep(20);
+
+        // when
+        Member member2 = memberRepository.save(new Member("query2"));
+        em.flush();
+
+        // then
+        assertThat(member2.getCreatedDate()).isAfter(member1.getCreatedDate());
+    }
+
 }
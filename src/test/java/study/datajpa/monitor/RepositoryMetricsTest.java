@@ -0,0 +1,75 @@
+package study.datajpa.monitor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+
+@SpringBootTest(properties = "datajpa.repository-metrics.slow-threshold=0ms")
+@Transactional
+class RepositoryMetricsTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired RepositoryMetrics repositoryMetrics;
+
+    @PersistenceContext EntityManager em;
+
+
+    @Test
+    public void perMethodMeters() {
+        // given
+        Team team = new Team("metricsTeam");
+        em.persist(team);
+        em.persist(new Member("metrics", 10, team));
+        em.persist(new Member("metrics", 20, team));
+        em.flush();
+        em.clear();
+
+        // when: 회원 2 + 팀 1 (fetch join 아님 -> 팀은 배치 로딩 전 프록시)
+        memberRepository.findByUsernameAndAgeGreaterThan("metrics", 0);
+
+        // then
+        String method = "MemberRepository.findByUsernameAndAgeGreaterThan";
+        assertThat(meterRegistry.find("datajpa.repository.invocation").tag("method", method).tag("outcome", "success").timer().count())
+                .isEqualTo(1);
+        assertThat(summary("datajpa.repository.rows", method).max()).isEqualTo(2);
+        assertThat(summary("datajpa.repository.entities", method).max()).isEqualTo(2);
+        assertThat(summary("datajpa.repository.statements", method).max()).isEqualTo(1);
+        assertThat(meterRegistry.find("datajpa.repository.slow").tag("method", method).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void explain() {
+        assertThat(repositoryMetrics.explain("select * from member where member_id = 1")).containsIgnoringCase("member");
+    }
+
+    @Test
+    public void rows() {
+        assertThat(RepositoryMetrics.rows(Arrays.asList(1, 2, 3))).isEqualTo(3);
+        assertThat(RepositoryMetrics.rows(new PageImpl<>(Arrays.asList(1, 2)))).isEqualTo(2);
+        assertThat(RepositoryMetrics.rows(Optional.empty())).isEqualTo(0);
+        assertThat(RepositoryMetrics.rows(5)).isEqualTo(-1);
+        assertThat(RepositoryMetrics.rows(new Object())).isEqualTo(1);
+    }
+
+    private DistributionSummary summary(String name, String method) {
+        return meterRegistry.find(name).tag("method", method).summary();
+    }
+
+}
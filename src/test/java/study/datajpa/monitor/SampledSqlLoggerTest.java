@@ -0,0 +1,73 @@
+package study.datajpa.monitor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.common.StatementInformation;
+
+import study.datajpa.dto.SqlShapeStatsDto;
+
+class SampledSqlLoggerTest {
+
+    SampledSqlLogger logger = new SampledSqlLogger(true, 0.0, Duration.ofMillis(100), 16, 2);
+
+    @AfterEach
+    void tearDown() {
+        logger.stop();
+    }
+
+
+    @Test
+    public void aggregatesByShape() {
+        execute("select * from member where member_id=?", 1_000_000);
+        execute("select * from member where member_id=?", 3_000_000);
+        execute("update member set age=? where member_id=?", 500_000);
+
+        List<SqlShapeStatsDto> shapes = logger.topShapes(10);
+
+        assertThat(shapes).extracting(SqlShapeStatsDto::getSql)
+                .containsExactly("select * from member where member_id=?", "update member set age=? where member_id=?");
+        assertThat(shapes.get(0).getCount()).isEqualTo(2);
+        assertThat(shapes.get(0).getMaxMillis()).isEqualTo(3.0);
+        assertThat(shapes.get(0).getMeanMillis()).isEqualTo(2.0);
+    }
+
+    @Test
+    public void tooManyShapesAreFolded() {
+        execute("select 1", 1);
+        execute("select 2", 1);
+        execute("select 3", 1);
+        execute("select 4", 1);
+
+        assertThat(logger.topShapes(10)).extracting(SqlShapeStatsDto::getSql)
+                .contains(SampledSqlLogger.OTHER_SHAPES)
+                .hasSize(3);
+    }
+
+    @Test
+    public void onlySlowStatementsAreBuffered() {
+        // writer 스레드를 띄우지 않았으므로 버퍼에 쌓이기만 한다. (16개)
+        for (int i = 0; i < 20; i++) {
+            execute("select * from member", 1_000);
+        }
+        assertThat(logger.getDroppedCount()).isZero();
+
+        for (int i = 0; i < 20; i++) {
+            execute("select * from member", 200_000_000);
+        }
+        assertThat(logger.getDroppedCount()).isEqualTo(4);
+    }
+
+    private void execute(String sql, long nanos) {
+        StatementInformation statement = new StatementInformation(ConnectionInformation.fromTestConnection(null));
+        statement.setStatementQuery(sql);
+        logger.onAfterAnyExecute(statement, nanos, null);
+    }
+
+}
@@ -0,0 +1,132 @@
+package study.datajpa.monitor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+
+@SpringBootTest
+@Transactional
+class SqlStatementCounterTest {
+
+    @Autowired MemberRepository memberRepository;
+
+    @PersistenceContext EntityManager em;
+
+    @AfterEach
+    void tearDown() {
+        SqlStatementCounter.stop();
+    }
+
+
+    @Test
+    public void repeatedSelectInLoopIsDetected() {
+        // given
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Member member = new Member("npo" + i, 10);
+            em.persist(member);
+            ids.add(member.getId());
+        }
+        em.flush();
+        em.clear();
+
+        // when: 루프 안에서 한 건씩 조회 -> 값만 다른 같은 모양의 select 3번
+        SqlStatementCounter.reset();
+        ids.forEach(id -> memberRepository.findById(id));
+
+        // then
+        SqlStatementCounter.assertSelectCount(3);
+        assertThatThrownBy(SqlStatementCounter::assertNoRepeatedSelects).isInstanceOf(AssertionError.class);
+        assertThat(SqlStatementCounter.current().getRepeatedSelects()).hasSize(1);
+    }
+
+    @Test
+    public void lazyLoadingIsBatched() {
+        // given: 팀 3개, 팀마다 회원 1명
+        for (int i = 0; i < 3; i++) {
+            Team team = new Team("batch-team" + i);
+            em.persist(team);
+            em.persist(new Member("batch-fetch" + i, 10, team));
+        }
+        em.flush();
+        em.clear();
+
+        // when
+        SqlStatementCounter.reset();
+        List<Member> members = em.createQuery("select m from Member m where m.username like 'batch-fetch%'", Member.class)
+                .getResultList();
+        members.forEach(member -> member.getTeam().getName());
+
+        // then: default_batch_fetch_size 덕분에 팀 3개를 in 쿼리 한 번으로 (1 + 3 -> 1 + 1)
+        SqlStatementCounter.assertSelectCount(1 + 1);
+        SqlStatementCounter.assertNoRepeatedSelects();
+    }
+
+    @Test
+    public void initializeTeamsPerCall() {
+        // given
+        for (int i = 0; i < 3; i++) {
+            Team team = new Team("init-team" + i);
+            em.persist(team);
+            em.persist(new Member("init-fetch" + i, 10, team));
+        }
+        em.flush();
+        em.clear();
+
+        List<Member> members = em.createQuery("select m from Member m where m.username like 'init-fetch%'", Member.class)
+                .getResultList();
+
+        // when: 호출 단위 배치 크기 2 -> 팀 3개를 2 + 1로 나눠서 조회
+        SqlStatementCounter.reset();
+        memberRepository.initializeTeams(members, 2);
+        members.forEach(member -> member.getTeam().getName()); // 이미 초기화됨
+
+        // then
+        SqlStatementCounter.assertSelectCount(2);
+    }
+
+    @Test
+    public void fetchJoinIsOneSelect() {
+        // given
+        Team team = new Team("fetch-team");
+        em.persist(team);
+        em.persist(new Member("fetch1", 10, team));
+        em.persist(new Member("fetch2", 10, team));
+        em.flush();
+        em.clear();
+
+        // when
+        SqlStatementCounter.reset();
+        memberRepository.findMemberFetchJoin().forEach(member -> {
+            if (member.getTeam() != null) {
+                member.getTeam().getName();
+            }
+        });
+
+        // then
+        SqlStatementCounter.assertSelectCount(1);
+        SqlStatementCounter.assertNoRepeatedSelects();
+    }
+
+    @Test
+    public void shapeIgnoresValues() {
+        assertThat(SqlStats.shapeOf("select * from member where id = 10 and name in (?, ?, ?) and t = 'a''b'"))
+                .isEqualTo("select * from member where id = ? and name in (?) and t = ?");
+    }
+
+}
@@ -0,0 +1,54 @@
+package study.datajpa.monitor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import study.datajpa.repository.MemberRepository;
+
+@SpringBootTest
+@Transactional
+class SqlTimingListenerTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MeterRegistry meterRegistry;
+
+
+    @Test
+    public void statementTimerIsTaggedByRepositoryMethod() {
+        long before = count("MemberRepository.findUsernameList");
+
+        memberRepository.findUsernameList();
+
+        assertThat(count("MemberRepository.findUsernameList")).isEqualTo(before + 1);
+    }
+
+    @Test
+    public void connectionPoolMetrics() {
+        memberRepository.count();
+
+        assertThat(meterRegistry.find("hikaricp.connections.acquire").timer()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.pending").gauge()).isNotNull();
+    }
+
+    @Test
+    public void statementType() {
+        assertThat(SqlTimingListener.statementType("  select m from member m")).isEqualTo("select");
+        assertThat(SqlTimingListener.statementType("UPDATE member set age = 1")).isEqualTo("update");
+        assertThat(SqlTimingListener.statementType("call next value for member_seq")).isEqualTo("other");
+    }
+
+    private long count(String method) {
+        Timer timer = meterRegistry.find("datajpa.sql.statement")
+                .tag("method", method)
+                .tag("statement", "select")
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+}
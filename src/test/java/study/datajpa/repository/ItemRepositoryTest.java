@@ -1,10 +1,17 @@
 package study.datajpa.repository;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
 
 import study.datajpa.entity.Item;
+import study.datajpa.repository.support.BatchUpserter.UpsertResult;
 
 @SpringBootTest
 public class ItemRepositoryTest {
@@ -20,4 +27,27 @@ public class ItemRepositoryTest {
         // isNew(entity)가 false여서 merge하게 됨.
         // 이런 경우 Persistable이라는 인터페이스를 구현해 isNew()를 잘 오버라이딩 해주면 persist로 동작하게 된다.
     }
+
+
+    @Test
+    @Transactional
+    public void upsertAll() {
+        // given
+        itemRepository.save(new Item("upsert-1"));
+        itemRepository.save(new Item("upsert-2"));
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            items.add(new Item("upsert-" + i)); // 1, 2는 이미 있는 id
+        }
+
+        // when
+        UpsertResult result = itemRepository.upsertAll(items, 2);
+
+        // then
+        assertThat(result.getInserted()).isEqualTo(3);
+        assertThat(result.getUpdated()).isEqualTo(2);
+        assertThat(itemRepository.findById("upsert-1").get().getCreatedDate()).isNotNull(); // 생성일 유지
+        assertThat(itemRepository.findById("upsert-5")).isPresent();
+    }
 }
@@ -0,0 +1,157 @@
+package study.datajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+/**
+ * 리포지토리 조회가 실제로 실행한 SQL(바인딩 값 포함)을 모아 H2 EXPLAIN으로 인덱스 사용 여부를 확인한다.
+ */
+@SpringBootTest
+@Transactional
+class MemberIndexTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired SqlCapture sqlCapture;
+
+    @PersistenceContext EntityManager em;
+
+    @BeforeEach
+    void setUp() {
+        Team team = new Team("indexTeam");
+        em.persist(team);
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("index" + i, 70 + i % 3, team));
+        }
+        em.flush();
+        em.clear();
+    }
+
+
+    @Test
+    public void findByUsername() {
+        assertUsesIndex("idx_member_username", () -> memberRepository.findByUsername("index1"));
+    }
+
+    @Test
+    public void findByNames() {
+        assertUsesIndex("idx_member_username", () -> memberRepository.findByNames(Arrays.asList("index1", "index2")));
+    }
+
+    @Test
+    public void usernameSpec() {
+        assertUsesIndex("idx_member_username", () -> memberRepository.findAll(MemberSpec.username("index1")));
+    }
+
+    @Test
+    public void keysetPaging() {
+        assertUsesIndex("idx_member_username", () -> memberRepository.findMemberSlice(new MemberCursor("index1", 1L), 3));
+    }
+
+    @Test
+    public void findByAgePaging() {
+        // content + count 쿼리 둘 다
+        assertUsesIndex("idx_member_age_username", () ->
+                memberRepository.findByAge(71, PageRequest.of(0, 2, Sort.by("username"))));
+    }
+
+    @Test
+    public void findByPage() {
+        // MemberJpaRepository.findByPage와 같은 쿼리 (username 역순)
+        assertUsesIndex("idx_member_age_username", () ->
+                em.createQuery("select m from Member m where m.age = :age order by m.username desc", Member.class)
+                        .setParameter("age", 71)
+                        .setFirstResult(0)
+                        .setMaxResults(2)
+                        .getResultList());
+    }
+
+    @Test
+    public void bulkAddAge() {
+        assertUsesIndex("idx_member_age_username", () -> memberRepository.bulkAddAge(72));
+    }
+
+    @Test
+    public void teamNameSpec() {
+        assertUsesIndex("idx_team_name", () -> memberRepository.findAll(MemberSpec.teamName("indexTeam")));
+    }
+
+
+    private void assertUsesIndex(String index, Runnable query) {
+        List<String> statements = sqlCapture.capture(query);
+
+        assertThat(statements).isNotEmpty();
+        for (String sql : statements) {
+            String plan = String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+            assertThat(plan).as(sql).doesNotContainIgnoringCase("tableScan");
+        }
+        assertThat(statements)
+                .anySatisfy(sql -> assertThat(jdbcTemplate.queryForList("explain " + sql, String.class).get(0))
+                        .containsIgnoringCase(index));
+    }
+
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+
+    }
+
+    // p6spy 리스너 빈으로 등록된다
+    static class SqlCapture extends JdbcEventListener {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+        private volatile Thread capturing;
+
+        List<String> capture(Runnable query) {
+            statements.clear();
+            capturing = Thread.currentThread();
+            try {
+                query.run();
+            } finally {
+                capturing = null;
+            }
+            return statements;
+        }
+
+        @Override
+        public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+            if (capturing == Thread.currentThread()) {
+                String sql = statementInformation.getSqlWithValues();
+                if (!sql.trim().toLowerCase().startsWith("call next value")) {
+                    statements.add(sql);
+                }
+            }
+        }
+
+    }
+
+}
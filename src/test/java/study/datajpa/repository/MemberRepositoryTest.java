@@ -2,13 +2,21 @@ package study.datajpa.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -16,6 +24,7 @@ import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,6 +32,7 @@ import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.repository.support.SpecificationCompiler;
 
 @SpringBootTest
 @Transactional
@@ -34,6 +44,9 @@ public class MemberRepositoryTest {
     @Autowired
     TeamRepository teamRepository;
 
+    @Autowired
+    SpecificationCompiler specificationCompiler;
+
     @PersistenceContext
     EntityManager em;
     
@@ -149,6 +162,93 @@ public class MemberRepositoryTest {
 
     }
 
+    @Test
+    public void pagingCountStrategy() {
+        // given
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("count" + i, 77));
+        }
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by("username"));
+
+        // when
+        Page<Member> exact = memberRepository.findByAge(77, pageRequest, CountStrategy.EXACT);
+        Page<Member> cached = memberRepository.findByAge(77, pageRequest, CountStrategy.CACHED);
+
+        memberRepository.save(new Member("count5", 77));
+        Page<Member> cachedAgain = memberRepository.findByAge(77, pageRequest, CountStrategy.CACHED); // TTL 안이면 이전 값
+        Page<Member> exactAgain = memberRepository.findByAge(77, pageRequest, CountStrategy.EXACT);
+
+        // then
+        assertThat(exact.getContent()).extracting("username").containsExactly("count0", "count1", "count2");
+        assertThat(exact.getTotalElements()).isEqualTo(5);
+        assertThat(cached.getTotalElements()).isEqualTo(5);
+        assertThat(cachedAgain.getTotalElements()).isEqualTo(5);
+        assertThat(exactAgain.getTotalElements()).isEqualTo(6);
+    }
+
+    @Test
+    public void keysetPaging() {
+        // given
+        memberRepository.save(new Member("keyset3", 10));
+        memberRepository.save(new Member("keyset1", 10));
+        memberRepository.save(new Member("keyset2", 10));
+        Member sameName = memberRepository.save(new Member("keyset2", 20));
+        em.flush();
+
+        // "keyset" 바로 뒤부터 시작 (다른 테스트 데이터와 섞이지 않게)
+        MemberCursor cursor = new MemberCursor("keyset", 0L);
+
+        // when
+        Slice<Member> first = memberRepository.findMemberSlice(cursor, 2);
+        MemberCursor next = MemberCursor.decode(MemberCursor.of(first.getContent().get(1)).encode()); // 토큰 왕복
+        Slice<Member> second = memberRepository.findMemberSlice(next, 2);
+
+        // then
+        assertThat(first.getContent()).extracting("username").containsExactly("keyset1", "keyset2");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).extracting("username").startsWith("keyset2", "keyset3");
+        assertThat(second.getContent().get(0).getId()).isEqualTo(sameName.getId()); // 같은 username이면 id로 이어짐
+    }
+
+    @Test
+    public void keysetPagingWithNullUsername() {
+        // given: username이 없는 회원은 맨 앞
+        Member noName1 = memberRepository.save(new Member(null, 10));
+        Member noName2 = memberRepository.save(new Member(null, 20));
+        em.flush();
+
+        // when: null username 커서도 토큰 왕복
+        MemberCursor start = MemberCursor.decode(new MemberCursor(null, 0L).encode());
+        Slice<Member> first = memberRepository.findMemberSlice(start, 2);
+        MemberCursor next = MemberCursor.decode(MemberCursor.of(first.getContent().get(1)).encode());
+        Slice<Member> second = memberRepository.findMemberSlice(next, 1);
+
+        // then
+        assertThat(start.getUsername()).isNull();
+        assertThat(first.getContent()).extracting("id").containsExactly(noName1.getId(), noName2.getId());
+        assertThat(second.getContent()).extracting("username").doesNotContainNull(); // null 다음은 username 순서로 이어짐
+        assertThat(memberRepository.findMemberDtoSlice(start, 2).getContent()).extracting("id")
+                .containsExactly(noName1.getId(), noName2.getId());
+    }
+
+    @Test
+    public void saveAllBatched() {
+        // given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            members.add(new Member("batch" + i, 30));
+        }
+
+        // when
+        int saved = memberRepository.saveAllBatched(members, 10); // 10, 10, 5 건씩 배치 insert
+
+        // then
+        assertThat(saved).isEqualTo(25);
+        assertThat(members).allMatch(member -> member.getId() != null);
+        assertThat(em.contains(members.get(0))).isFalse(); // flush + clear 되어 준영속
+        assertThat(memberRepository.findById(members.get(24).getId())).isPresent();
+    }
+
     @Test
     public void bulkUpdate() {
         // given
@@ -172,6 +272,48 @@ public class MemberRepositoryTest {
     }
 
 
+    @Test
+    public void secondLevelCacheEvictedByBulkUpdate() {
+        // given
+        Member member = memberRepository.save(new Member("cached", 50));
+        em.flush();
+        em.clear();
+
+        Cache cache = em.getEntityManagerFactory().getCache();
+        memberRepository.findById(member.getId()); // 조회하면서 2차 캐시에 올라감
+        assertThat(cache.contains(Member.class, member.getId())).isTrue();
+
+        // when
+        memberRepository.bulkAddAge(50);
+
+        // then
+        assertThat(cache.contains(Member.class, member.getId())).isFalse(); // 벌크 연산이 Member 영역을 비움
+        assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(51);
+    }
+
+
+    @Test
+    public void queryCacheInvalidatedByWrite() {
+        // given: 기동 시점에 커밋된 user1 (MemberController.init)
+        QueryStatistics stats = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics()
+                .getQueryStatistics("select m from Member m where m.username = :username");
+
+        memberRepository.findByUsername("user1");
+        long hits = stats.getCacheHitCount();
+
+        // when
+        List<Member> cached = memberRepository.findByUsername("user1"); // DB에 가지 않음
+
+        memberRepository.save(new Member("user1", 99));
+        em.flush(); // member 테이블 변경 -> 쿼리 캐시 무효화
+        List<Member> fresh = memberRepository.findByUsername("user1");
+
+        // then
+        assertThat(stats.getCacheHitCount()).isEqualTo(hits + 1);
+        assertThat(fresh.size()).isEqualTo(cached.size() + 1);
+    }
+
+
     @Test
     public void findMemberLazy() {
 
@@ -233,6 +375,49 @@ public class MemberRepositoryTest {
     }
 
 
+    @Test
+    @Transactional(readOnly = true)
+    public void readOnlyTransaction() {
+        // when: 기동 시점에 커밋된 user1
+        Member member = memberRepository.findByUsername("user1").get(0);
+
+        // then: 스냅샷 없는 읽기 전용 엔티티, flush 안 함
+        Session session = em.unwrap(Session.class);
+        assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.MANUAL);
+        assertThat(session.isReadOnly(member)).isTrue();
+    }
+
+
+    @Test
+    public void asyncQuery() throws Exception {
+        // given: 비동기 조회는 다른 스레드(다른 트랜잭션)라 기동 시점에 커밋된 데이터로 확인
+        Long id = memberRepository.findByUsername("user1").get(0).getId();
+
+        // when
+        CompletableFuture<MemberDto> member = memberRepository.findMemberDtoById(id);
+        CompletableFuture<Page<MemberDto>> page = memberRepository.findAllAsync(PageRequest.of(0, 5, Sort.by("username")), CountStrategy.EXACT);
+
+        // then
+        assertThat(member.get().getUsername()).isEqualTo("user1");
+        assertThat(memberRepository.findMemberDtoById(-1L).get()).isNull();
+        assertThat(page.get().getContent()).hasSize(5);
+        assertThat(page.get().getTotalElements()).isGreaterThanOrEqualTo(40);
+    }
+
+    @Test
+    public void asyncPageCountsOnSameConnection() throws Exception {
+        // 풀 크기만큼 동시에 실행해도 ASYNC count가 커넥션을 더 잡지 않는다 (커넥션 타임아웃 없이 끝나야 함)
+        List<CompletableFuture<Page<MemberDto>>> pages = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            pages.add(memberRepository.findAllAsync(PageRequest.of(0, 5, Sort.by("username")), CountStrategy.ASYNC));
+        }
+
+        for (CompletableFuture<Page<MemberDto>> page : pages) {
+            assertThat(page.get(5, TimeUnit.SECONDS).getContent()).hasSize(5);
+        }
+    }
+
+
     @Test
     public void lock() {
         // given
@@ -278,6 +463,46 @@ public class MemberRepositoryTest {
         // QueryDsl 쓰자 ^^...!
     }
 
+    @Test
+    public void compiledSpecification() {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("m1", 10, teamA));
+        em.persist(new Member("m2", 20, teamA));
+        em.persist(new Member("m3", 30, teamB));
+
+        em.flush();
+        em.clear();
+
+        // when: 같은 구조, 다른 값
+        List<Member> first = memberRepository.findAllCompiled(
+                MemberSpec.teamName("teamA").and(MemberSpec.ageGreaterThanOrEqual(15)));
+        long misses = specificationCompiler.getMissCount();
+        long hits = specificationCompiler.getHitCount();
+        List<Member> second = memberRepository.findAllCompiled(
+                MemberSpec.teamName("teamB").and(MemberSpec.ageGreaterThanOrEqual(5)));
+
+        // then
+        assertThat(first).extracting("username").containsExactly("m2");
+        assertThat(second).extracting("username").containsExactly("m3");
+        assertThat(specificationCompiler.getMissCount()).isEqualTo(misses); // 템플릿 재사용
+        assertThat(specificationCompiler.getHitCount()).isEqualTo(hits + 1);
+
+        // Criteria(findAll)와 같은 결과. 빈 조건은 빠진다
+        assertThat(memberRepository.findAll(MemberSpec.teamName("teamA").and(MemberSpec.ageGreaterThanOrEqual(15))))
+                .extracting("username").containsExactly("m2");
+        assertThat(memberRepository.findAllCompiled(MemberSpec.teamName("").and(MemberSpec.username("m1"))))
+                .extracting("username").containsExactly("m1");
+
+        // username(null)은 빠지지 않는다 (username = null -> 맞는 회원 없음)
+        assertThat(memberRepository.findAll(MemberSpec.username(null))).isEmpty();
+        assertThat(memberRepository.findAllCompiled(MemberSpec.username(null))).isEmpty();
+    }
+
 
     @Test
     public void queryByExample() {
@@ -355,6 +580,46 @@ public class MemberRepositoryTest {
         List<MemberProjection> content = result.getContent();
         content.forEach(m -> System.out.printf("projection.username: %s, projection.teamName: %s\n", m.getUsername(), m.getTeamName()));
 
+        // 조인 조건이 있어야 회원 수만큼 (member x team 카테시안 곱 X)
+        List<MemberProjection> all = memberRepository.findByNativeProjection(PageRequest.of(0, 2000)).getContent();
+        assertThat(all).hasSize((int) memberRepository.count());
+    }
+
+    @Test
+    public void nativeDtoSlice() {
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 5; i++) {
+            em.persist(new Member("native" + i, i, teamA));
+        }
+        em.persist(new Member("native5", 5)); // 팀 없음
+
+        // when: 같은 키셋 페이징을 JPA(엔티티) / JDBC(DTO)로. 쓰기 트랜잭션이라 flush는 findMemberDtoSlice가 한다
+        List<Long> entityIds = new ArrayList<>();
+        List<MemberDto> dtos = new ArrayList<>();
+        MemberCursor entityCursor = null;
+        MemberCursor dtoCursor = null;
+        Slice<Member> entitySlice;
+        Slice<MemberDto> dtoSlice;
+        do {
+            entitySlice = memberRepository.findMemberSlice(entityCursor, 7);
+            entitySlice.forEach(member -> entityIds.add(member.getId()));
+            List<Member> content = entitySlice.getContent();
+            entityCursor = content.isEmpty() ? null : MemberCursor.of(content.get(content.size() - 1));
+
+            dtoSlice = memberRepository.findMemberDtoSlice(dtoCursor, 7);
+            dtos.addAll(dtoSlice.getContent());
+            MemberDto last = dtoSlice.getContent().isEmpty() ? null : dtoSlice.getContent().get(dtoSlice.getNumberOfElements() - 1);
+            dtoCursor = last == null ? null : new MemberCursor(last.getUsername(), last.getId());
+        } while (entitySlice.hasNext());
+
+        // then
+        assertThat(dtoSlice.hasNext()).isFalse();
+        assertThat(dtos).extracting(MemberDto::getId).containsExactlyElementsOf(entityIds);
+        assertThat(dtos).filteredOn(dto -> dto.getUsername().startsWith("native"))
+                .extracting(MemberDto::getTeamName)
+                .containsExactly("teamA", "teamA", "teamA", "teamA", "teamA", null);
     }
 
 }
@@ -0,0 +1,61 @@
+package study.datajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.monitor.SqlStatementCounter;
+
+@SpringBootTest
+@Transactional
+class TeamRepositoryTest {
+
+    @Autowired TeamRepository teamRepository;
+
+    @PersistenceContext EntityManager em;
+
+    @AfterEach
+    void tearDown() {
+        SqlStatementCounter.stop();
+    }
+
+
+    @Test
+    public void initializeMembers() {
+        // given: 팀 5개, 팀마다 회원 2명
+        for (int i = 0; i < 5; i++) {
+            Team team = new Team("init-members" + i);
+            em.persist(team);
+            em.persist(new Member("init-members" + i + "a", 10, team));
+            em.persist(new Member("init-members" + i + "b", 10, team));
+        }
+        em.flush();
+        em.clear();
+
+        List<Team> teams = em.createQuery("select t from Team t where t.name like 'init-members%'", Team.class)
+                .getResultList();
+        assertThat(teams).hasSize(5).noneMatch(team -> Hibernate.isInitialized(team.getMembers()));
+
+        // when: 호출 단위 배치 크기 2 -> 팀 5개의 members를 2 + 2 + 1로 나눠서 조회
+        SqlStatementCounter.reset();
+        teamRepository.initializeMembers(teams, 2);
+
+        // then
+        assertThat(teams).allMatch(team -> Hibernate.isInitialized(team.getMembers()));
+        assertThat(teams).allMatch(team -> team.getMembers().size() == 2); // 이미 초기화됨, 쿼리 없음
+        SqlStatementCounter.assertSelectCount(3);
+    }
+
+}
@@ -0,0 +1,140 @@
+package study.datajpa.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.ChunkedBulkUpdater.Job;
+import study.datajpa.repository.support.ChunkedBulkUpdater.Progress;
+import study.datajpa.repository.support.ChunkedBulkUpdater.Result;
+
+// 청크는 별도 트랜잭션에서 실행되므로 테스트 데이터를 커밋해야 한다. (@Transactional X)
+@SpringBootTest
+class ChunkedBulkUpdaterTest {
+
+    @Autowired ChunkedBulkUpdater bulkUpdater;
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext EntityManager em;
+
+    List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            members.add(new Member("bulk" + i, 1000 + i));
+        }
+        memberRepository.saveAllBatched(members, 50);
+        members.forEach(member -> ids.add(member.getId()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllByIdInBatch(ids);
+    }
+
+
+    @Test
+    public void updatesEveryChunk() {
+        List<Progress> progress = new CopyOnWriteArrayList<>();
+
+        Result result = bulkUpdater.execute(ageOver(1000).chunkSize(7), progress::add);
+
+        assertThat(result.getUpdatedRows()).isEqualTo(50);
+        assertThat(result.getChunks()).isEqualTo(progress.size());
+        assertThat(progress).extracting(Progress::getUpdatedRows).contains(50L);
+        assertThat(progress).extracting(Progress::getWatermark).contains(result.getWatermark());
+        assertThat(memberRepository.findAllById(ids)).allMatch(member -> member.getAge() == index(member) + 1001);
+    }
+
+    @Test
+    public void resumeFromWatermark() {
+        Long middle = ids.get(25);
+
+        Result result = bulkUpdater.execute(ageOver(1000).chunkSize(7).resumeFrom(middle), null);
+
+        assertThat(result.getUpdatedRows()).isEqualTo(25);
+        assertThat(memberRepository.findAllById(ids))
+                .allMatch(member -> member.getAge() == index(member) + (member.getId() < middle ? 1000 : 1001));
+    }
+
+    @Test
+    public void sparseIdsDoNotCreateEmptyChunks() {
+        // 시퀀스 id와 멀리 떨어진 id. id 범위로 나누면 빈 청크가 수천만 개
+        for (long far : new long[] {ids.get(49) + 100_000_000L, ids.get(49) + 200_000_000L}) {
+            jdbcTemplate.update("insert into member (member_id, username, age) values (?, ?, ?)", far, "bulk-far", 2000);
+            ids.add(far);
+        }
+
+        Result result = bulkUpdater.execute(ageOver(1000).chunkSize(7), null);
+
+        assertThat(result.getUpdatedRows()).isEqualTo(52);
+        assertThat(result.getChunks()).isEqualTo(8); // 52 / 7 올림
+    }
+
+    @Test
+    public void onlyAffectedEntitiesAreDetached() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            Member affected = em.find(Member.class, ids.get(40)); // age 1040
+            Member untouched = em.find(Member.class, ids.get(10)); // age 1010
+
+            bulkUpdater.execute(ageOver(1030).chunkSize(7), null);
+
+            assertThat(em.contains(affected)).isFalse();
+            assertThat(em.contains(untouched)).isTrue();
+            assertThat(em.find(Member.class, ids.get(40)).getAge()).isEqualTo(1041);
+        });
+    }
+
+    @Test
+    public void rejectsReadWriteTransaction() {
+        // 호출 쪽이 락을 잡은 채로 청크(다른 커넥션)를 기다리면 락 타임아웃까지 멈춘다
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Member member = em.find(Member.class, ids.get(40));
+            member.setAge(0);
+
+            assertThatThrownBy(() -> bulkUpdater.execute(ageOver(1030).chunkSize(7), null))
+                    .isInstanceOf(IllegalStateException.class);
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    public void repositoryBulkAddAgeInChunks() {
+        Result result = memberRepository.bulkAddAgeInChunks(1045, Long.MIN_VALUE, null);
+
+        assertThat(result.getUpdatedRows()).isEqualTo(5);
+    }
+
+    private static int index(Member member) {
+        return Integer.parseInt(member.getUsername().substring("bulk".length()));
+    }
+
+    private static Job ageOver(int age) {
+        return Job.of(Member.class, "e.age = e.age + 1").where("e.age >= :age", Map.of("age", age));
+    }
+
+}
@@ -0,0 +1,161 @@
+package study.datajpa.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+// 병렬 청크는 별도 트랜잭션에서 실행되므로 테스트 데이터를 커밋해야 한다. (@Transactional X)
+@SpringBootTest(properties = "datajpa.in-query.chunk-size=4")
+class InQueryExecutorTest {
+
+    @Autowired InQueryExecutor inQueryExecutor;
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired InListCapture inListCapture;
+
+    @PersistenceContext EntityManager em;
+
+    List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            members.add(new Member("inquery" + i, 10));
+        }
+        memberRepository.saveAllBatched(members, 10);
+        members.forEach(member -> ids.add(member.getId()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.deleteAllByIdInBatch(ids);
+    }
+
+
+    @Test
+    public void chunksRunInParallelOutsideTransaction() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<Integer> chunkSizes = new CopyOnWriteArrayList<>();
+
+        List<Long> result = inQueryExecutor.execute(ids, chunk -> {
+            threads.add(Thread.currentThread().getName());
+            chunkSizes.add(chunk.size());
+            return chunk;
+        });
+
+        assertThat(result).containsExactlyElementsOf(ids); // 청크 순서대로 합친다
+        assertThat(chunkSizes).containsExactlyInAnyOrder(4, 4, 2);
+        assertThat(threads).anyMatch(name -> name.startsWith("in-query-"));
+
+        assertThat(memberRepository.findAllByIdChunked(ids)).hasSize(10);
+        assertThat(memberRepository.findMemberDtoByIds(ids)).hasSize(10);
+    }
+
+    @Test
+    public void chunksJoinCallerTransaction() {
+        Thread caller = Thread.currentThread();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<Member> members = memberRepository.findAllByIdChunked(ids);
+
+            assertThat(members).hasSize(10);
+            assertThat(members).allMatch(em::contains); // 같은 영속성 컨텍스트
+
+            List<Long> result = inQueryExecutor.execute(ids, chunk -> {
+                assertThat(Thread.currentThread()).isSameAs(caller);
+                return chunk;
+            });
+            assertThat(result).hasSize(10);
+        });
+    }
+
+    @Test
+    public void duplicatesAndEmptyKeys() {
+        List<Long> withDuplicates = new ArrayList<>(ids);
+        withDuplicates.addAll(ids);
+        assertThat(memberRepository.findAllByIdChunked(withDuplicates)).hasSize(10);
+
+        List<List<Long>> chunks = new CopyOnWriteArrayList<>();
+        assertThat(inQueryExecutor.execute(Collections.<Long>emptyList(), chunk -> {
+            chunks.add(chunk);
+            return chunk;
+        })).isEmpty();
+        assertThat(chunks).isEmpty(); // 쿼리 실행 X
+    }
+
+    @Test
+    public void padsInClauseToPowerOfTwo() {
+        List<Integer> parameters = inListCapture.capture(() ->
+                memberRepository.findByNames(Arrays.asList("inquery0", "inquery1", "inquery2")));
+
+        assertThat(parameters).containsExactly(4); // 3개 -> 4개 (마지막 값을 반복)
+    }
+
+
+    @TestConfiguration
+    static class InListCaptureConfig {
+
+        @Bean
+        InListCapture inListCapture() {
+            return new InListCapture();
+        }
+
+    }
+
+    // in (...) 안의 파라미터 수만 모은다
+    static class InListCapture extends JdbcEventListener {
+
+        private final List<Integer> inLists = new CopyOnWriteArrayList<>();
+        private volatile boolean capturing;
+
+        List<Integer> capture(Runnable query) {
+            inLists.clear();
+            capturing = true;
+            try {
+                query.run();
+            } finally {
+                capturing = false;
+            }
+            return inLists;
+        }
+
+        @Override
+        public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+            String sql = statementInformation.getSql();
+            int in = sql.indexOf(" in (");
+            if (capturing && in >= 0) {
+                String parameters = sql.substring(in + 5, sql.indexOf(')', in));
+                inLists.add(parameters.length() - parameters.replace("?", "").length());
+            }
+        }
+
+    }
+
+}
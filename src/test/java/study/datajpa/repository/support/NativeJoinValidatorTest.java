@@ -0,0 +1,62 @@
+package study.datajpa.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class NativeJoinValidatorTest {
+
+    @Test
+    public void joinWithoutCondition() {
+        assertThat(NativeJoinValidator.joinsWithoutCondition(
+                "select m.member_id as id, m.username, t.name as teamName from member m left join team t"))
+                .containsExactly("join team");
+
+        assertThat(NativeJoinValidator.joinsWithoutCondition(
+                "select * from member m join team t on m.team_id = t.team_id join item i where i.price > 0"))
+                .containsExactly("join item");
+    }
+
+    @Test
+    public void joinWithCondition() {
+        assertThat(NativeJoinValidator.joinsWithoutCondition(
+                "select * from member m left join team t on m.team_id = t.team_id order by m.username")).isEmpty();
+        assertThat(NativeJoinValidator.joinsWithoutCondition(
+                "select * from member m inner join team t using (team_id)")).isEmpty();
+        assertThat(NativeJoinValidator.joinsWithoutCondition(
+                "select * from member m left join team t on(m.team_id=t.team_id)")).isEmpty();
+    }
+
+    @Test
+    public void intendedOrQuotedJoins() {
+        assertThat(NativeJoinValidator.joinsWithoutCondition("select * from member m cross join team t")).isEmpty();
+        assertThat(NativeJoinValidator.joinsWithoutCondition("select * from member m natural join team t")).isEmpty();
+        assertThat(NativeJoinValidator.joinsWithoutCondition("select * from member where username = 'left join x'")).isEmpty();
+        assertThat(NativeJoinValidator.joinsWithoutCondition("select * from member m -- left join team t\nwhere m.age > 0")).isEmpty();
+    }
+
+    @Test
+    public void subqueriesAreNotChecked() {
+        // 서브쿼리 안의 join, where는 최상위 FROM 절 판단에 영향을 주지 않는다
+        assertThat(NativeJoinValidator.joinsWithoutCondition(
+                "select * from member m where m.team_id in (select t.team_id from team t join member x where x.age > 0)")).isEmpty();
+        assertThat(NativeJoinValidator.joinsWithoutCondition(
+                "select * from member m left join (select team_id from team where name = 'a') t on m.team_id = t.team_id")).isEmpty();
+
+        assertThat(NativeJoinValidator.joinsWithoutCondition(
+                "select * from member m left join (select team_id from team) t where m.age > 0"))
+                .containsExactly("join (...)");
+    }
+
+    @Test
+    public void requireJoinConditions() {
+        String sql = "select * from member m left join team t on m.team_id = t.team_id";
+        assertThat(NativeJoinValidator.requireJoinConditions(sql)).isSameAs(sql);
+
+        assertThatThrownBy(() -> NativeJoinValidator.requireJoinConditions("select * from member m left join team t"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("join team");
+    }
+
+}
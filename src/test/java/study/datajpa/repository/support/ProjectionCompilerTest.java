@@ -0,0 +1,140 @@
+package study.datajpa.repository.support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.NestedClosedProjections;
+import study.datajpa.repository.UsernameOnly;
+import study.datajpa.repository.UsernameOnlyDto;
+import study.datajpa.repository.support.ProjectionCompiler.CompiledProjection;
+
+@SpringBootTest
+@Transactional
+class ProjectionCompilerTest {
+
+    @Autowired ProjectionCompiler projectionCompiler;
+    @Autowired MemberRepository memberRepository;
+
+    @PersistenceContext EntityManager em;
+
+    @BeforeEach
+    void setUp() {
+        Team team = new Team("projectionTeam");
+        em.persist(team);
+        em.persist(new Member("projection1", 10, team));
+        em.persist(new Member("projection1", 20, team));
+        em.flush();
+        em.clear();
+    }
+
+
+    @Test
+    public void closedProjection() {
+        CompiledProjection<MemberSummary> projection = projectionCompiler.compile(Member.class, MemberSummary.class);
+        assertThat(projection.getColumns()).containsExactly("age", "id", "username"); // getter 이름 순
+
+        List<MemberSummary> result = projectionCompiler.list(em, Member.class, MemberSummary.class,
+                "e.username = :username order by e.age", Map.of("username", "projection1"));
+
+        assertThat(result).extracting(MemberSummary::getAge).containsExactly(10, 20);
+        assertThat(result).allMatch(summary -> !Proxy.isProxyClass(summary.getClass()) && summary.getId() != null);
+    }
+
+    @Test
+    public void openProjectionCompilesExpression() {
+        CompiledProjection<UsernameOnly> projection = projectionCompiler.compile(Member.class, UsernameOnly.class);
+        assertThat(projection.getColumns()).containsExactly("username", "age"); // 엔티티 전체가 아니라 식이 참조하는 컬럼만
+
+        List<UsernameOnly> result = memberRepository.findProjectionsByUsername("projection1", UsernameOnly.class);
+
+        assertThat(result).extracting(UsernameOnly::getUsername).containsExactlyInAnyOrder("projection1 10", "projection1 20");
+        assertThat(result.get(0).getClass()).isSameAs(projection.getImplementation());
+    }
+
+    @Test
+    public void dtoClass() {
+        List<UsernameOnlyDto> result = memberRepository.findProjectionsByUsername("projection1", UsernameOnlyDto.class);
+
+        assertThat(result).extracting(UsernameOnlyDto::getUsername).containsExactly("projection1", "projection1");
+    }
+
+    @Test
+    public void unsupportedExpressionFallsBackToProxy() {
+        assertThat(projectionCompiler.compile(Member.class, UppercaseUsername.class)).isNull();
+
+        List<UppercaseUsername> result = projectionCompiler.list(em, Member.class, UppercaseUsername.class,
+                "e.username = :username", Map.of("username", "projection1"));
+
+        assertThat(result).extracting(UppercaseUsername::getUsername).containsOnly("PROJECTION1");
+        assertThat(Proxy.isProxyClass(result.get(0).getClass())).isTrue();
+    }
+
+    @Test
+    public void packagePrivateProjectionFallsBackToProxy() {
+        assertThat(projectionCompiler.compile(Member.class, PackagePrivateSummary.class)).isNull();
+
+        List<PackagePrivateSummary> result = projectionCompiler.list(em, Member.class, PackagePrivateSummary.class,
+                "e.username = :username", Map.of("username", "projection1"));
+
+        assertThat(result).extracting(PackagePrivateSummary::getUsername).containsOnly("projection1");
+        assertThat(Proxy.isProxyClass(result.get(0).getClass())).isTrue();
+    }
+
+    @Test
+    public void entityProjection() {
+        assertThat(memberRepository.findProjectionsByUsername("projection1", Member.class)).hasSize(2);
+    }
+
+    @Test
+    public void nestedProjectionSelectsOnlyReferencedColumns() {
+        CompiledProjection<NestedClosedProjections> projection = projectionCompiler.compile(Member.class, NestedClosedProjections.class);
+        assertThat(projection.getColumns()).containsExactly("team.id", "team.name", "username");
+        assertThat(projection.joins("e")).isEqualTo(" left join e.team e_team");
+
+        em.persist(new Member("projection1", 30)); // 팀 없음
+        em.flush();
+        em.clear();
+
+        List<NestedClosedProjections> result = memberRepository.findProjectionsByUsername("projection1", NestedClosedProjections.class);
+
+        assertThat(result).hasSize(3);
+        assertThat(result).extracting(nested -> nested.getTeam() == null ? null : nested.getTeam().getName())
+                .containsExactlyInAnyOrder("projectionTeam", "projectionTeam", null);
+        assertThat(result.get(0).getClass()).isSameAs(projection.getImplementation());
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero(); // Member, Team 모두 로딩하지 않음
+    }
+
+
+    public interface MemberSummary {
+        Long getId();
+        String getUsername();
+        int getAge();
+    }
+
+    public interface UppercaseUsername {
+        @Value("#{target.username.toUpperCase()}")
+        String getUsername();
+    }
+
+    interface PackagePrivateSummary {
+        String getUsername();
+    }
+
+}
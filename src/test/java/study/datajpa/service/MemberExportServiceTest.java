@@ -0,0 +1,98 @@
+package study.datajpa.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+class MemberExportServiceTest {
+
+    private static final int ROWS = 20_000;
+    private static final int SAMPLE_EVERY = 2_000;
+
+    @Autowired MemberExportService memberExportService;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext EntityManager em;
+
+
+    @Test
+    public void exportCsv() throws Exception {
+        jdbcTemplate.update("insert into member (member_id, username, age) values (300000001, 'export,1', 10)");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        memberExportService.export(MemberExportService.Format.CSV, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertThat(csv).startsWith("id,username,teamName\n");
+        assertThat(csv).contains("300000001,\"export,1\",\n"); // 구분자가 들어간 값은 따옴표로 감싼다
+    }
+
+    @Test
+    public void exportDoesNotFillPersistenceContext() throws Exception {
+        // given
+        jdbcTemplate.update("insert into member (member_id, username, age)"
+                + " select x + 200000000, 'export' || x, mod(x, 100) from system_range(1, ?)", ROWS);
+        Session session = em.unwrap(Session.class);
+
+        // when
+        EntityCountSamplingOutputStream out = new EntityCountSamplingOutputStream(session);
+        long exported = memberExportService.export(MemberExportService.Format.NDJSON, out);
+
+        // then
+        assertThat(exported).isGreaterThanOrEqualTo(ROWS);
+        assertThat(out.lines).isEqualTo(exported); // 읽은 건수만큼 바로 썼다
+        assertThat(out.samples).hasSizeGreaterThanOrEqualTo(ROWS / SAMPLE_EVERY);
+
+        // 엔티티로 읽거나 쌓아 두면 영속성 컨텍스트가 건수만큼 커진다. DTO 스트리밍이면 내내 0
+        assertThat(out.samples).containsOnly(0);
+        assertThat(session.getStatistics().getEntityCount()).isZero();
+    }
+
+
+    /**
+     * 내용은 버리고 줄 수만 센다. SAMPLE_EVERY 줄마다 영속성 컨텍스트의 엔티티 수를 기록
+     */
+    static class EntityCountSamplingOutputStream extends OutputStream {
+
+        final List<Integer> samples = new ArrayList<>();
+        long lines;
+
+        private final Session session;
+
+        EntityCountSamplingOutputStream(Session session) {
+            this.session = session;
+        }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n' && ++lines % SAMPLE_EVERY == 0) {
+                samples.add(session.getStatistics().getEntityCount());
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+
+    }
+
+}
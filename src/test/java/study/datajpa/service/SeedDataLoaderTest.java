@@ -0,0 +1,31 @@
+package study.datajpa.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import study.datajpa.repository.MemberRepository;
+
+@SpringBootTest
+@Transactional
+class SeedDataLoaderTest {
+
+    @Autowired SeedDataLoader seedDataLoader;
+    @Autowired MemberRepository memberRepository;
+
+
+    @Test
+    public void seededOnceAfterStartup() {
+        // 기동 완료 시점에 들어가 있다 (datajpa.seed.async=false)
+        assertThat(memberRepository.findByUsername("user0")).hasSize(1);
+
+        // 이미 회원이 있으면 다시 넣지 않는다
+        long count = memberRepository.count();
+        seedDataLoader.load();
+        assertThat(memberRepository.count()).isEqualTo(count);
+    }
+
+}